@@ -0,0 +1,47 @@
+package com.siemens.internship.benchmarks;
+
+import com.siemens.internship.validator.EmailValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Cost of one email validation for typical valid and invalid addresses,
+ * compared with compiling the regex per call (the previous implementation) and with a precompiled regex.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailValidatorBenchmark {
+
+    @Param({"test.test@test.test.com", "test@test_+.com", "test..test@test.com"})
+    private String email;
+
+    private EmailValidator validator;
+    private Pattern pattern;
+
+    @Setup
+    public void setUp() {
+        validator = new EmailValidator();
+        pattern = Pattern.compile(EmailValidator.EMAIL_REGEX);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(email, null);
+    }
+
+    @Benchmark
+    public boolean compiledPerCall() {
+        return Pattern.compile(EmailValidator.EMAIL_REGEX).matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean precompiledRegex() {
+        return pattern.matcher(email).matches();
+    }
+}
@@ -0,0 +1,85 @@
+package com.siemens.internship.benchmarks;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * One full processing run over a table of 1k and 100k items.
+ * Every run starts from unprocessed items and cold caches, so each mode writes every item.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemProcessingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int itemCount;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemRepository itemRepository;
+    private EntityManagerFactory entityManagerFactory;
+    private CacheManager cacheManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("processingBenchmark" + itemCount);
+        itemService = context.getBean(ItemService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        cacheManager = context.getBean(CacheManager.class);
+        for (int from = 0; from < itemCount; from += 1000) {
+            itemRepository.saveAll(IntStream.range(from, Math.min(from + 1000, itemCount))
+                    .mapToObj(i -> new Item(null, "Item " + i, "Description", "NEW", "item@test.com"))
+                    .toList());
+        }
+    }
+
+    // a processed item is not dirty anymore, the entity and range modes would measure runs without UPDATEs
+    @Setup(Level.Iteration)
+    public void resetItems() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            entityManager.createQuery("UPDATE Item i SET i.status = 'NEW'").executeUpdate();
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+        entityManagerFactory.getCache().evictAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> processItemsAsync() {
+        return itemService.processItemsAsync().join();
+    }
+
+    @Benchmark
+    public long processItemsInBulkAsync() {
+        return itemService.processItemsInBulkAsync().join();
+    }
+
+    @Benchmark
+    public long processItemsInRangesAsync() {
+        return itemService.processItemsInRangesAsync().join();
+    }
+}
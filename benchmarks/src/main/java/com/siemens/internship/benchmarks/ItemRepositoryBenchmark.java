@@ -0,0 +1,54 @@
+package com.siemens.internship.benchmarks;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Single-row save and find through ItemRepository against the embedded H2 database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemRepositoryBenchmark {
+    private static final int ITEM_COUNT = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("repositoryBenchmark");
+        itemRepository = context.getBean(ItemRepository.class);
+        itemRepository.saveAll(IntStream.range(0, ITEM_COUNT)
+                .mapToObj(i -> new Item(null, "Item " + i, "Description", "NEW", "item@test.com"))
+                .toList());
+        ids = itemRepository.findAllIds();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Item save() {
+        return itemRepository.save(new Item(null, "Item", "Description", "NEW", "item@test.com"));
+    }
+
+    @Benchmark
+    public Item findById() {
+        Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return itemRepository.findById(id).orElseThrow();
+    }
+}
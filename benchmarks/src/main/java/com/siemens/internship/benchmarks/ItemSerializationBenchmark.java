@@ -0,0 +1,53 @@
+package com.siemens.internship.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.model.Item;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization and deserialization of one Item, as done for every item of the API responses,
+ * with the ObjectMapper the application configures for them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemSerializationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private Item item;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start("serializationBenchmark");
+        objectMapper = context.getBean(ObjectMapper.class);
+        item = new Item(42L, "Item", "Description", "PROCESSED", "item@test.com");
+        item.setVersion(3L);
+        item.setUpdatedAt(Instant.now());
+        json = objectMapper.writeValueAsBytes(item);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(item);
+    }
+
+    @Benchmark
+    public Item deserialize() throws IOException {
+        return objectMapper.readValue(json, Item.class);
+    }
+}
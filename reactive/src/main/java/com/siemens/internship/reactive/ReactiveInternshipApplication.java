@@ -0,0 +1,13 @@
+package com.siemens.internship.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveInternshipApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveInternshipApplication.class, args);
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.siemens.internship.reactive.controller;
+
+import com.siemens.internship.reactive.model.Item;
+import com.siemens.internship.reactive.service.ItemService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Same endpoints and status codes as the blocking ItemController, without holding a thread per request.
+ * Lists are streamed - as a JSON array by default, or one line per item with Accept: application/x-ndjson.
+ */
+@RestController
+@RequestMapping("/api/items")
+public class ItemController {
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private Validator validator;
+
+    @GetMapping
+    public Flux<Item> getAllItems() {
+        return itemService.findAll();
+    }
+
+    // the field errors are reported in the same map format as the blocking application
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> createItem(@RequestBody Item item) {
+        Set<ConstraintViolation<Item>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            Map<String, String> errors = new HashMap<>();
+            violations.forEach(violation ->
+                    errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+            return Mono.just(new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST));
+        }
+        return itemService.save(item)
+                .map(saved -> new ResponseEntity<>(saved, HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Item>> getItemById(@PathVariable Long id) {
+        return itemService.findById(id)
+                .map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Item>> updateItem(@PathVariable Long id, @RequestBody Item item) {
+        return itemService.findById(id)
+                .flatMap(existingItem -> {
+                    item.setId(id);
+                    return itemService.save(item);
+                })
+                .map(updated -> new ResponseEntity<>(updated, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteItem(@PathVariable Long id) {
+        return itemService.findById(id)
+                .flatMap(existingItem -> itemService.deleteById(id)
+                        .thenReturn(new ResponseEntity<Void>(HttpStatus.NO_CONTENT)))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/process")
+    public Flux<Item> processItems() {
+        return itemService.processItems();
+    }
+}
@@ -0,0 +1,33 @@
+package com.siemens.internship.reactive.model;
+
+import com.siemens.internship.validator.ValidEmail;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Same item as the blocking application, mapped with Spring Data Relational instead of JPA
+ */
+@Table("item")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class Item {
+    @Id
+    private Long id;
+    @NotEmpty
+    private String name;
+    @NotEmpty
+    private String description;
+    @NotEmpty
+    private String status;
+
+    // validating email using the custom annotation of the blocking application
+    @ValidEmail
+    private String email;
+}
@@ -0,0 +1,22 @@
+package com.siemens.internship.reactive.repository;
+
+import com.siemens.internship.reactive.model.Item;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ItemRepository extends ReactiveCrudRepository<Item, Long> {
+    @Query("SELECT id FROM item ORDER BY id")
+    Flux<Long> findAllIds();
+
+    @Query("SELECT * FROM item WHERE id IN (:ids)")
+    Flux<Item> findAllByIdIn(List<Long> ids);
+
+    @Modifying
+    @Query("UPDATE item SET status = :status WHERE id IN (:ids)")
+    Mono<Integer> updateStatusByIds(List<Long> ids, String status);
+}
@@ -0,0 +1,60 @@
+package com.siemens.internship.reactive.service;
+
+import com.siemens.internship.reactive.model.Item;
+import com.siemens.internship.reactive.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+public class ItemService {
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Value("${items.processing.chunk-size}")
+    private int chunkSize;
+    @Value("${items.processing.concurrency}")
+    private int concurrency;
+
+    public Flux<Item> findAll() {
+        return itemRepository.findAll();
+    }
+
+    public Mono<Item> findById(Long id) {
+        return itemRepository.findById(id);
+    }
+
+    public Mono<Item> save(Item item) {
+        return itemRepository.save(item);
+    }
+
+    public Mono<Void> deleteById(Long id) {
+        return itemRepository.deleteById(id);
+    }
+
+    /**
+     * Reactive counterpart of the blocking processItemsAsync - the ids are read as a stream, grouped in chunks,
+     * and at most "concurrency" chunks are updated at the same time. flatMap only requests more ids when
+     * a chunk completes, so a slow database or a slow client throttles the whole pipeline (backpressure).
+     * @return the processed items, emitted as soon as their chunk is saved
+     */
+    public Flux<Item> processItems() {
+        return itemRepository.findAllIds()
+                .buffer(chunkSize)
+                .flatMap(this::processChunk, concurrency);
+    }
+
+    // one UPDATE and one SELECT per chunk, inside the same transaction
+    private Flux<Item> processChunk(List<Long> ids) {
+        return itemRepository.updateStatusByIds(ids, "PROCESSED")
+                .thenMany(itemRepository.findAllByIdIn(ids))
+                .as(transactionalOperator::transactional);
+    }
+}
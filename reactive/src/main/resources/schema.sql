@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS item (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    status VARCHAR(255),
+    email VARCHAR(255)
+);
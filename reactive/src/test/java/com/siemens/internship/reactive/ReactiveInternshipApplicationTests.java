@@ -0,0 +1,108 @@
+package com.siemens.internship.reactive;
+
+import com.siemens.internship.reactive.model.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class ReactiveInternshipApplicationTests {
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void contextLoads() {
+	}
+
+	@Test
+	void createItem_validData() {
+		Item item = new Item(
+				null,
+				"Valid Item",
+				"Desc",
+				"Status",
+				"test@test.com");
+
+		Item created = webTestClient.post().uri("/api/items").bodyValue(item)
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody(Item.class).returnResult().getResponseBody();
+
+		assertThat(created).isNotNull();
+		assertThat(created.getId()).isNotNull();
+	}
+
+	@Test
+	void createItem_invalidEmail() {
+		Item item = new Item(
+				null,
+				"Bad Item",
+				"Desc",
+				"Status",
+				"bad-email");
+
+		webTestClient.post().uri("/api/items").bodyValue(item)
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody(String.class).value(body -> assertThat(body).contains("Invalid email format"));
+	}
+
+	@Test
+	void getItemById_notFound() {
+		webTestClient.get().uri("/api/items/9999")
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void deleteItem_success() {
+		Item item = new Item(
+				null,
+				"Valid Item",
+				"Desc",
+				"Status",
+				"test@test.com");
+		Long id = webTestClient.post().uri("/api/items").bodyValue(item)
+				.exchange()
+				.expectBody(Item.class).returnResult().getResponseBody().getId();
+
+		webTestClient.delete().uri("/api/items/" + id)
+				.exchange()
+				.expectStatus().isNoContent();
+		webTestClient.get().uri("/api/items/" + id)
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void processItems_streamingNdjson() {
+		Item item = new Item(
+				null,
+				"Item",
+				"Desc",
+				"Status",
+				"item@test.com");
+		webTestClient.post().uri("/api/items").bodyValue(item)
+				.exchange()
+				.expectStatus().isCreated();
+
+		List<Item> processedItems = webTestClient.get().uri("/api/items/process")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(Item.class).getResponseBody()
+				.collectList().block();
+
+		assertThat(processedItems).isNotEmpty();
+		assertThat(processedItems).allSatisfy(processed ->
+				assertThat(processed.getStatus()).isEqualTo("PROCESSED"));
+	}
+}
@@ -0,0 +1,30 @@
+package com.siemens.internship.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * The item change feed, bound from "items.changes.*"
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.changes")
+public class ChangeFeedProperties {
+    /**
+     * Number of recent changes served from memory, older cursors are read from the outbox table
+     */
+    private int bufferSize = 10_000;
+
+    /**
+     * How often a node numbers the changes left behind and reads the changes numbered by other nodes
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long the changes are kept in the outbox table
+     */
+    private Duration retention = Duration.ofDays(7);
+}
@@ -0,0 +1,40 @@
+package com.siemens.internship.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sharing the processing between application nodes on one database, bound from "items.cluster.*"
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.cluster")
+public class ClusterProcessingProperties {
+    /**
+     * Whether this node polls for shards of a sharded run started on any node
+     */
+    private boolean enabled = false;
+
+    /**
+     * Name under which this node holds its leases, a random one per start when empty
+     */
+    private String nodeId;
+
+    /**
+     * Number of id ranges a sharded run is split into, a few per node keeps the nodes evenly busy
+     */
+    private int shardCount = 64;
+
+    /**
+     * How long a claimed shard stays with its node without a renewal, after that another node takes it over
+     */
+    private Duration leaseDuration = Duration.ofSeconds(30);
+
+    /**
+     * How often an enabled node looks for unclaimed or expired shards, and every node for jobs with an expired lease
+     */
+    private Duration pollInterval = Duration.ofSeconds(5);
+}
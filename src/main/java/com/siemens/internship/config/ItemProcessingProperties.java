@@ -0,0 +1,90 @@
+package com.siemens.internship.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tuning knobs for the item processing pipeline, bound from "items.processing.*"
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.processing")
+public class ItemProcessingProperties {
+    /**
+     * Number of items loaded, updated and saved together in one transaction
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Number of chunks processed at the same time
+     */
+    private int parallelism = 10;
+
+    /**
+     * Kind of threads which run the chunks
+     */
+    private ExecutorType executor = ExecutorType.PLATFORM;
+
+    /**
+     * Maximum number of chunks talking to the database at the same time, 0 means the size of the connection pool
+     */
+    private int maxDbConcurrency = 0;
+
+    /**
+     * Maximum number of chunks waiting for a processing thread, a run submitting more is throttled or rejected
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * What happens to a chunk when the queue is full
+     */
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+
+    /**
+     * Maximum number of processing runs at the same time, further runs are rejected with 429
+     */
+    private int maxConcurrentRuns = 2;
+
+    /**
+     * How many times a chunk is repeated when one of its items was changed concurrently
+     */
+    private int maxConflictRetries = 3;
+
+    /**
+     * How far an incremental run looks back before the start of the previous run, so rows which were
+     * changed before it started but committed after it read the changes are still picked up
+     */
+    private Duration incrementalOverlap = Duration.ofSeconds(5);
+
+    /**
+     * How long the running chunks may take to finish when the application stops
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    public enum RejectionPolicy {
+        /**
+         * The submitting thread processes the chunk itself, which slows the run down to the speed of the pool
+         */
+        CALLER_RUNS,
+
+        /**
+         * The chunk is rejected and the run fails, answered with 503
+         */
+        ABORT
+    }
+
+    public enum ExecutorType {
+        /**
+         * A fixed pool of "parallelism" platform threads
+         */
+        PLATFORM,
+
+        /**
+         * A new virtual thread per chunk (Java 21+), falls back to PLATFORM on older runtimes
+         */
+        VIRTUAL
+    }
+}
@@ -0,0 +1,30 @@
+package com.siemens.internship.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sizes and expiry of the Hibernate second-level cache regions, bound from "items.second-level-cache.*"
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "items.second-level-cache")
+public class SecondLevelCacheProperties {
+    /**
+     * Maximum number of Item entities kept in the entity region
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Time after which a cached Item entity is dropped
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * Maximum number of cached query results
+     */
+    private long queryMaximumSize = 1_000;
+}
@@ -0,0 +1,41 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.service.ItemChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The item change feed - a consumer passes the position of the last change it has seen and gets the changes after it,
+ * optionally waiting for the next change instead of polling the items.
+ */
+@RestController
+@RequestMapping("/api/items/changes")
+public class ItemChangeController {
+    static final int MAX_LIMIT = 1000;
+    // stays below the async request timeout of the container
+    static final Duration MAX_WAIT = Duration.ofSeconds(25);
+
+    @Autowired
+    private ItemChangeFeed changeFeed;
+
+    // wait is in seconds; 0 answers right away, otherwise the request is held until a change or the wait is over
+    @GetMapping
+    public CompletableFuture<ResponseEntity<?>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                           @RequestParam(defaultValue = "100") int limit,
+                                                           @RequestParam(defaultValue = "0") long wait) {
+        if (since < 0 || limit < 1 || limit > MAX_LIMIT || wait < 0) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(
+                    Map.of("error", "since and wait must not be negative, limit must be between 1 and " + MAX_LIMIT),
+                    HttpStatus.BAD_REQUEST));
+        }
+        Duration waitTime = Duration.ofSeconds(Math.min(wait, MAX_WAIT.toSeconds()));
+        return changeFeed.awaitChangesAfter(since, limit, waitTime)
+                .thenApply(changes -> new ResponseEntity<>(changes, HttpStatus.OK));
+    }
+}
@@ -1,21 +1,44 @@
 package com.siemens.internship.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.service.BulkSaveResult;
+import com.siemens.internship.service.ItemBulkService;
 import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingRejectedException;
+import com.siemens.internship.service.ProcessingRunLimiter;
+import com.siemens.internship.service.ProcessingMode;
+import com.siemens.internship.service.ShardedProcessingService;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
 @RestController
 @RequestMapping("/api/items")
@@ -23,10 +46,57 @@ public class ItemController {
 
     @Autowired
     private ItemService itemService;
+    @Autowired
+    private ItemBulkService itemBulkService;
+    @Autowired
+    private ProcessingRunLimiter runLimiter;
+    @Autowired
+    private ShardedProcessingService shardedProcessingService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private Validator validator;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // without paging parameters the whole table is returned as before,
+    // with afterId and/or limit only the page which follows afterId (the last id of the previous page)
+    // status and/or email filter on indexed columns, filtered requests are always paged
+    // fields (e.g. fields=id,status) selects only those columns, also always paged
 
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
-        return new ResponseEntity<>(itemService.findAll(), HttpStatus.OK);
+    public ResponseEntity<?> getAllItems(@RequestParam(required = false) Long afterId,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String status,
+                                         @RequestParam(required = false) String email,
+                                         @RequestParam(required = false) List<String> fields) {
+        if (afterId == null && limit == null && status == null && email == null && fields == null) {
+            return new ResponseEntity<>(itemService.findAll(), HttpStatus.OK);
+        }
+        int pageSize = limit == null ? 100 : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (fields == null) {
+            return new ResponseEntity<>(itemService.findPage(status, email, afterId, pageSize), HttpStatus.OK);
+        }
+        try {
+            return new ResponseEntity<>(
+                    itemService.findFieldsPage(fields, status, email, afterId, pageSize), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // streams the whole table as one JSON line per item while it is read from a database cursor
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        StreamingResponseBody body = outputStream ->
+                itemService.forEachItem(item -> writeLines(outputStream, List.of(item)));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     // modified the HttpStatus.BAD_REQUEST to HttpStatus.CREATED when the item was created successfully
@@ -44,36 +114,119 @@ public class ItemController {
         return new ResponseEntity<>(itemService.save(item), HttpStatus.CREATED);
     }
 
+    // accepts a JSON array or an NDJSON stream and reads it item by item, so the request is never held in memory
+    // returns 201 if at least one item was saved, with the field errors of the rejected items by their index,
+    // 400 if no item could be saved
+
+    @PostMapping(value = "/bulk", consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> createItems(InputStream body) {
+        try (MappingIterator<Item> items = objectMapper.readerFor(Item.class).readValues(body)) {
+            BulkSaveResult result = itemBulkService.saveAll(items);
+            HttpStatus status = result.saved() == 0 && result.rejected() > 0
+                    ? HttpStatus.BAD_REQUEST
+                    : HttpStatus.CREATED;
+            return new ResponseEntity<>(result, status);
+        } catch (IOException e) {
+            return malformedItems(e);
+        } catch (RuntimeException e) {
+            // the iterator wraps parse errors in unchecked exceptions
+            if (e instanceof RuntimeJsonMappingException || e.getCause() instanceof JsonProcessingException) {
+                return malformedItems(e);
+            }
+            throw e;
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> malformedItems(Exception e) {
+        return new ResponseEntity<>(Map.of("error", "Malformed items: " + e.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
     // modified the HttpStatus.NO_CONTENT to HttpStatus.NOT_FOUND when the item is not found
 
+    // the ETag is the version of the item, send it back in If-Match to make an update conditional
+
     @GetMapping("/{id}")
     public ResponseEntity<Item> getItemById(@PathVariable Long id) {
         return itemService.findById(id)
-                .map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+                .map(item -> ResponseEntity.ok().eTag(eTag(item)).body(item))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     // modified the HttpStatus.ACCEPTED to HttpStatus.NOT_FOUND when the item is not found
     // modified the HttpStatus.CREATED to HttpStatus.OK when the item is updated
 
+    // the update is checked against the version instead of being a blind save
+    // the expected version comes from If-Match, or else from the version in the body,
+    // without either the update is unconditional - a stale version is answered with 412
+    // the item is validated like on create, before anything is loaded
+
     @PutMapping("/{id}")
-    public ResponseEntity<Item> updateItem(@PathVariable Long id, @RequestBody Item item) {
-        Optional<Item> existingItem = itemService.findById(id);
-        if (existingItem.isPresent()) {
-            item.setId(id);
-            return new ResponseEntity<>(itemService.save(item), HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    public ResponseEntity<?> updateItem(@PathVariable Long id, @Valid @RequestBody Item item, BindingResult result,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (result.hasErrors()) {
+            Map<String, String> errors = new HashMap<>();
+            result.getFieldErrors().forEach(error ->
+                    errors.put(error.getField(), error.getDefaultMessage()));
+            return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
         }
+        return write(id, item, ifMatch, stored -> ResponseEntity.ok().eTag(eTag(stored)).body(stored));
+    }
+
+    // partial update - only the fields present in the body are changed, answered with 204 and the new ETag
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchItem(@PathVariable Long id, @RequestBody Item patch,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // absent fields are null, so only the violations of the present fields count
+        Map<String, String> errors = new HashMap<>();
+        validator.validate(patch).stream()
+                .filter(violation -> violation.getInvalidValue() != null)
+                .forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        if (!errors.isEmpty()) {
+            return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+        }
+        return write(id, patch, ifMatch, stored -> ResponseEntity.noContent().eTag(eTag(stored)).build());
+    }
+
+    // the existence is only checked when the conditional update changed nothing
+    // the response carries the stored item as written by the update's transaction, and its version as ETag
+    private ResponseEntity<?> write(Long id, Item changes, String ifMatch, Function<Item, ResponseEntity<?>> updated) {
+        try {
+            if (ifMatch != null) {
+                changes.setVersion(parseETag(ifMatch));
+            }
+        } catch (NumberFormatException e) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        }
+        Optional<Item> stored = itemService.update(id, changes, changes.getVersion());
+        if (stored.isPresent()) {
+            return updated.apply(stored.get());
+        }
+        return new ResponseEntity<>(itemService.existsById(id) ? HttpStatus.PRECONDITION_FAILED : HttpStatus.NOT_FOUND);
+    }
+
+    private static String eTag(Item item) {
+        return "\"" + item.getVersion() + "\"";
+    }
+
+    // "*" matches any version, weak tags are compared by their value
+    private static Long parseETag(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        return Long.valueOf(tag.replace("\"", ""));
     }
 
     // verification if there is an item with given id was missing
+    // deleted as an entity, so the other cached items stay in the second-level cache
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteItem(@PathVariable Long id) {
-        Optional<Item> existingItem = itemService.findById(id);
-        if (existingItem.isPresent()) {
-            itemService.deleteById(id);
+        if (itemService.deleteById(id)) {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -81,16 +234,86 @@ public class ItemController {
     }
 
     // modified to return async response without blocking the request
+    // mode=BULK updates the statuses with set-based statements and only returns how many items were processed
+    // mode=RANGE processes id ranges on a fork-join pool and also only returns the count
+    // mode=INCREMENTAL only processes the items changed since its previous run
+    // mode=SHARDED shares the run with the other nodes through leases on id ranges
 
     @GetMapping("/process")
-    public CompletableFuture<ResponseEntity<List<Item>>> processItems() {
-        return itemService.processItemsAsync()
-                .thenApply(result -> new ResponseEntity<>(result, HttpStatus.OK))
-                .exceptionally(e -> {
-                    if (e.getCause() instanceof CancellationException) {
-                        return new ResponseEntity<>(HttpStatus.REQUEST_TIMEOUT);
-                    }
-                    return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-                });
+    public CompletableFuture<ResponseEntity<?>> processItems(
+            @RequestParam(defaultValue = "ENTITY") ProcessingMode mode) {
+        if (mode == ProcessingMode.BULK) {
+            return withErrorStatus(itemService.processItemsInBulkAsync()
+                    .thenApply(count -> new ResponseEntity<>(Map.of("processed", count), HttpStatus.OK)));
+        }
+        if (mode == ProcessingMode.RANGE) {
+            return withErrorStatus(itemService.processItemsInRangesAsync()
+                    .thenApply(count -> new ResponseEntity<>(Map.of("processed", count), HttpStatus.OK)));
+        }
+        if (mode == ProcessingMode.SHARDED) {
+            return withErrorStatus(shardedProcessingService.processShardsAsync()
+                    .thenApply(count -> new ResponseEntity<>(Map.of("processed", count), HttpStatus.OK)));
+        }
+        if (mode == ProcessingMode.INCREMENTAL) {
+            return withErrorStatus(itemService.processChangedItemsAsync()
+                    .thenApply(count -> new ResponseEntity<>(Map.of("processed", count), HttpStatus.OK)));
+        }
+        return withErrorStatus(itemService.processItemsAsync()
+                .thenApply(result -> new ResponseEntity<>(result, HttpStatus.OK)));
+    }
+
+    // streams every processed item as one JSON line as soon as its chunk is saved,
+    // instead of holding all of them until the whole run is finished
+
+    // the run is started before streaming, so a rejection is still answered with 429
+
+    @GetMapping(value = "/process", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> processItemsStreaming() {
+        ProcessingRunLimiter.Run run = runLimiter.start();
+        StreamingResponseBody body = outputStream -> {
+            try (run) {
+                itemService.processItems(items -> writeLines(outputStream, items));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while processing items", e);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // chunks complete on different threads, so the writes to the response are serialized
+    private void writeLines(OutputStream outputStream, List<?> values) {
+        synchronized (outputStream) {
+            try {
+                for (Object value : values) {
+                    outputStream.write(objectMapper.writeValueAsBytes(value));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // overload is answered with 429 (too many runs) or 503 (processing queue full) instead of a generic 500,
+    // with the same Retry-After and error body as the overload thrown before the run started
+
+    private <T> CompletableFuture<ResponseEntity<?>> withErrorStatus(CompletableFuture<ResponseEntity<T>> response) {
+        return response.<ResponseEntity<?>>thenApply(result -> result).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof CancellationException) {
+                return new ResponseEntity<>(HttpStatus.REQUEST_TIMEOUT);
+            }
+            if (cause instanceof ProcessingRejectedException) {
+                return OverloadExceptionHandler.overloaded(HttpStatus.TOO_MANY_REQUESTS, cause.getMessage());
+            }
+            if (cause instanceof RejectedExecutionException) {
+                return OverloadExceptionHandler.overloaded(HttpStatus.SERVICE_UNAVAILABLE, cause.getMessage());
+            }
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        });
     }
 }
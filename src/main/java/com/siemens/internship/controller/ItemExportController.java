@@ -0,0 +1,40 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.io.ItemExportService;
+import com.siemens.internship.io.ItemFileFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.channels.Channels;
+
+/**
+ * Downloads the whole item table as a CSV or NDJSON file, written to the response while the rows are read.
+ */
+@RestController
+@RequestMapping("/api/items/export")
+public class ItemExportController {
+
+    @Autowired
+    private ItemExportService exportService;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam(defaultValue = "NDJSON") ItemFileFormat format,
+                                                             @RequestParam(defaultValue = "false") boolean gzip) {
+        String fileName = "items" + format.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = outputStream ->
+                exportService.export(Channels.newChannel(outputStream), format, gzip);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,54 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.io.ItemFileFormat;
+import com.siemens.internship.io.ItemImportService;
+import com.siemens.internship.service.BulkSaveResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.Map;
+
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+/**
+ * Imports a CSV or NDJSON request body of any size, reading it while it is uploaded.
+ */
+@RestController
+@RequestMapping("/api/items/import")
+public class ItemImportController {
+
+    @Autowired
+    private ItemImportService importService;
+
+    // same status codes as the bulk create: 201 if anything was saved, 400 if nothing or if a record is malformed
+
+    @PostMapping(consumes = "text/csv")
+    public ResponseEntity<?> importCsv(InputStream body) {
+        return importItems(body, ItemFileFormat.CSV);
+    }
+
+    @PostMapping(consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> importNdjson(InputStream body) {
+        return importItems(body, ItemFileFormat.NDJSON);
+    }
+
+    private ResponseEntity<?> importItems(InputStream body, ItemFileFormat format) {
+        try {
+            BulkSaveResult result = importService.importChannel(Channels.newChannel(body), format);
+            HttpStatus status = result.saved() == 0 && result.rejected() > 0
+                    ? HttpStatus.BAD_REQUEST
+                    : HttpStatus.CREATED;
+            return new ResponseEntity<>(result, status);
+        } catch (IOException | UncheckedIOException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
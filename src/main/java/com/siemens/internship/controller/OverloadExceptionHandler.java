@@ -0,0 +1,38 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.service.ProcessingRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Answers overload with a retryable status instead of a 500, for every endpoint using the processing executor.
+ */
+@RestControllerAdvice
+public class OverloadExceptionHandler {
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    @ExceptionHandler(ProcessingRejectedException.class)
+    public ResponseEntity<Map<String, String>> tooManyRuns(ProcessingRejectedException e) {
+        return overloaded(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> queueFull(RejectedExecutionException e) {
+        return overloaded(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+    }
+
+    // always JSON, also when the client asked for a stream; also used for the runs failing after the request returned
+    static ResponseEntity<Map<String, String>> overloaded(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", message));
+    }
+}
@@ -0,0 +1,54 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.service.ProcessingJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Background processing runs - the client gets a job id right away and polls the progress,
+ * instead of holding the request open for the whole run.
+ */
+@RestController
+@RequestMapping("/api/items/process-jobs")
+public class ProcessingJobController {
+
+    @Autowired
+    private ProcessingJobService jobService;
+
+    @PostMapping
+    public ResponseEntity<ProcessingJob> startJob() {
+        ProcessingJob job = jobService.start();
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{id}")
+                        .buildAndExpand(job.getId())
+                        .toUri())
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProcessingJob> getJob(@PathVariable Long id) {
+        return jobService.findById(id)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    // returns 409 if the job is already finished and cannot be cancelled anymore
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelJob(@PathVariable Long id) {
+        try {
+            return jobService.cancel(id)
+                    .<ResponseEntity<?>>map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.siemens.internship.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads UTF-8 lines from a channel through one direct byte buffer and one char buffer,
+ * so the memory used does not depend on the size of the input. Lines end with "\n" or "\r\n".
+ */
+public class ChannelLineReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final int maxLineLength;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final StringBuilder line = new StringBuilder();
+    private boolean endOfInput;
+    private long lineNumber;
+
+    /**
+     * @param channel the channel, closed together with the reader
+     * @param maxLineLength the longest line accepted, longer lines fail instead of filling the heap
+     */
+    public ChannelLineReader(ReadableByteChannel channel, int maxLineLength) {
+        this.channel = channel;
+        this.maxLineLength = maxLineLength;
+        chars.flip();
+    }
+
+    /**
+     * @return the next line without its terminator, or null at the end of the input
+     * @throws IOException if the input cannot be read, is not UTF-8 or has a line which is too long
+     */
+    public String readLine() throws IOException {
+        while (true) {
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (c == '\n') {
+                    return takeLine();
+                }
+                if (line.length() == maxLineLength) {
+                    throw new IOException("Line " + (lineNumber + 1) + " is longer than " + maxLineLength + " characters");
+                }
+                line.append(c);
+            }
+            if (endOfInput) {
+                return line.isEmpty() ? null : takeLine();
+            }
+            fill();
+        }
+    }
+
+    /**
+     * @return the number of the last line returned, starting at 1
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String takeLine() {
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            length--;
+        }
+        String result = line.substring(0, length);
+        line.setLength(0);
+        lineNumber++;
+        return result;
+    }
+
+    private void fill() throws IOException {
+        chars.clear();
+        endOfInput = channel.read(bytes) == -1;
+        bytes.flip();
+        check(decoder.decode(bytes, chars, endOfInput));
+        if (endOfInput) {
+            check(decoder.flush(chars));
+        }
+        bytes.compact();
+        chars.flip();
+    }
+
+    private void check(CoderResult result) throws IOException {
+        if (result.isError()) {
+            throw new IOException("Invalid UTF-8 after line " + lineNumber);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.siemens.internship.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 CSV: fields separated by commas, quoted when they contain a comma, a quote or a line break,
+ * quotes inside quoted fields doubled.
+ */
+final class CsvCodec {
+
+    private CsvCodec() {
+    }
+
+    /**
+     * Parses one record, reading more lines while a quoted field spans line breaks.
+     * @param reader the reader, positioned after the previous record
+     * @param maxRecordLength the maximum number of characters of a record, line breaks included
+     * @return the fields, or null at the end of the input
+     * @throws IOException if the record is longer, which usually means a quote is not closed
+     */
+    static List<String> readRecord(ChannelLineReader reader, int maxRecordLength) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        long firstLine = reader.getLineNumber();
+        long recordLength = line.length();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Unterminated quoted field at line " + reader.getLineNumber());
+                }
+                // without the bound an unclosed quote would collect the rest of the input in one field
+                recordLength += line.length() + 1;
+                if (recordLength > maxRecordLength) {
+                    throw new IOException("Record starting at line " + firstLine + " is longer than "
+                            + maxRecordLength + " characters, a quoted field may not be closed");
+                }
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+
+    /**
+     * Appends one field, quoted only if needed.
+     */
+    static void appendField(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,34 @@
+package com.siemens.internship.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Exports all items to a file on startup, e.g. java -jar internship.jar --items.export.file=items.csv.gz
+ */
+@Component
+@ConditionalOnProperty("items.export.file")
+public class ItemExportRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ItemExportRunner.class);
+
+    @Autowired
+    private ItemExportService exportService;
+
+    @Value("${items.export.file}")
+    private Path file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        log.info("Exporting items to {}", file);
+        long count = exportService.exportToFile(file);
+        log.info("Exported {} items to {}", count, file);
+    }
+}
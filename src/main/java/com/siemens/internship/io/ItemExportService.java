@@ -0,0 +1,67 @@
+package com.siemens.internship.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.model.Item;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exports the whole item table. The rows are read through a forward-only cursor of a stateless session,
+ * so there is no persistence context, dirty checking or second-level cache traffic per row,
+ * and written through bounded buffers - the memory used does not depend on the table size.
+ */
+@Service
+public class ItemExportService {
+    private static final int FETCH_SIZE = 1000;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Exports to a file, the format is taken from its name (.csv, otherwise NDJSON) and a ".gz" suffix compresses it.
+     * @param file the file, replaced if it exists
+     * @return the number of exported items
+     */
+    public long exportToFile(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        return export(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING),
+                ItemFileFormat.fromFileName(fileName), fileName.toLowerCase().endsWith(".gz"));
+    }
+
+    /**
+     * Writes every item, ordered by id, to a channel. The channel is closed at the end.
+     * @param channel the output
+     * @param format the format of the output
+     * @param gzip true to compress the output
+     * @return the number of exported items
+     */
+    public long export(WritableByteChannel channel, ItemFileFormat format, boolean gzip) throws IOException {
+        long count = 0;
+        try (ItemFileWriter writer = new ItemFileWriter(channel, format, gzip, objectMapper);
+             StatelessSession session = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession();
+             ScrollableResults<Item> items = session.createSelectionQuery("FROM Item ORDER BY id", Item.class)
+                     .setFetchSize(FETCH_SIZE)
+                     .setReadOnly(true)
+                     .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (items.next()) {
+                writer.write(items.get());
+                count++;
+            }
+        }
+        return count;
+    }
+}
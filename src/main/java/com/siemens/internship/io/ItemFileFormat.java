@@ -0,0 +1,47 @@
+package com.siemens.internship.io;
+
+import org.springframework.http.MediaType;
+
+/**
+ * File formats supported by the import and the export
+ */
+public enum ItemFileFormat {
+    /**
+     * Comma separated values with a header line, quoted as in RFC 4180
+     */
+    CSV("text/csv", ".csv"),
+
+    /**
+     * One JSON object per line
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE, ".ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    ItemFileFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Guesses the format from a file name, ignoring a trailing ".gz".
+     * @param fileName the file name
+     * @return the format, NDJSON if the extension is not ".csv"
+     */
+    public static ItemFileFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - ".gz".length());
+        }
+        return name.endsWith(CSV.extension) ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,127 @@
+package com.siemens.internship.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.siemens.internship.model.Item;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Parses items lazily from a CSV or NDJSON channel - only the current record is in memory.
+ * CSV files start with a header naming the columns (id, name, description, status, email), in any order;
+ * unknown columns are ignored. Blank lines are skipped.
+ * Read and parse errors are thrown as {@link UncheckedIOException} naming the line.
+ */
+public class ItemFileReader implements Iterator<Item>, Closeable {
+    private static final int MAX_LINE_LENGTH = 1024 * 1024;
+    // a CSV record can span lines, it gets the same bound as a single line
+    private static final int MAX_RECORD_LENGTH = MAX_LINE_LENGTH;
+
+    private final ChannelLineReader reader;
+    private final ItemFileFormat format;
+    private final ObjectReader jsonReader;
+    private Map<String, Integer> columns;
+    private Item next;
+
+    public ItemFileReader(ReadableByteChannel channel, ItemFileFormat format, ObjectMapper objectMapper) {
+        this.reader = new ChannelLineReader(channel, MAX_LINE_LENGTH);
+        this.format = format;
+        this.jsonReader = objectMapper.readerFor(Item.class);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = format == ItemFileFormat.CSV ? readCsv() : readJson();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Malformed record at line " + reader.getLineNumber()
+                        + ": " + e.getMessage(), e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Item next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Item item = next;
+        next = null;
+        return item;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Item readJson() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                return jsonReader.readValue(line);
+            }
+        }
+        return null;
+    }
+
+    private Item readCsv() throws IOException {
+        if (columns == null) {
+            List<String> header = CsvCodec.readRecord(reader, MAX_RECORD_LENGTH);
+            if (header == null) {
+                return null;
+            }
+            columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(), i);
+            }
+        }
+
+        List<String> fields;
+        do {
+            fields = CsvCodec.readRecord(reader, MAX_RECORD_LENGTH);
+        } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+        if (fields == null) {
+            return null;
+        }
+
+        return new Item(
+                parseId(field(fields, "id")),
+                field(fields, "name"),
+                field(fields, "description"),
+                field(fields, "status"),
+                field(fields, "email"));
+    }
+
+    private Long parseId(String id) throws IOException {
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(id.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid id \"" + id + "\"");
+        }
+    }
+
+    private String field(List<String> fields, String column) throws IOException {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        if (index >= fields.size()) {
+            throw new IOException("Expected " + columns.size() + " fields but found " + fields.size());
+        }
+        return fields.get(index);
+    }
+}
@@ -0,0 +1,72 @@
+package com.siemens.internship.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.siemens.internship.model.Item;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes items as CSV (with the header read by {@link ItemFileReader}) or NDJSON to a channel,
+ * optionally gzip-compressed, through fixed-size buffers.
+ */
+public class ItemFileWriter implements Closeable {
+    static final String CSV_HEADER = "id,name,description,status,email";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    private final ItemFileFormat format;
+    private final ObjectWriter jsonWriter;
+    private final StringBuilder record = new StringBuilder();
+
+    public ItemFileWriter(WritableByteChannel channel, ItemFileFormat format, boolean gzip,
+                          ObjectMapper objectMapper) throws IOException {
+        OutputStream output = Channels.newOutputStream(channel);
+        if (gzip) {
+            output = new GZIPOutputStream(output, BUFFER_SIZE);
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.format = format;
+        this.jsonWriter = objectMapper.writerFor(Item.class);
+        if (format == ItemFileFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    public void write(Item item) throws IOException {
+        if (format == ItemFileFormat.NDJSON) {
+            writer.write(jsonWriter.writeValueAsString(item));
+            writer.write('\n');
+            return;
+        }
+        record.setLength(0);
+        record.append(item.getId()).append(',');
+        CsvCodec.appendField(record, item.getName());
+        record.append(',');
+        CsvCodec.appendField(record, item.getDescription());
+        record.append(',');
+        CsvCodec.appendField(record, item.getStatus());
+        record.append(',');
+        CsvCodec.appendField(record, item.getEmail());
+        record.append('\n');
+        writer.append(record);
+    }
+
+    /**
+     * Flushes the buffers, finishes the gzip stream and closes the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
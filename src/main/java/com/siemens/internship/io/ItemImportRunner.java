@@ -0,0 +1,36 @@
+package com.siemens.internship.io;
+
+import com.siemens.internship.service.BulkSaveResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Imports a file on startup, e.g. java -jar internship.jar --items.import.file=items.csv
+ */
+@Component
+@ConditionalOnProperty("items.import.file")
+public class ItemImportRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ItemImportRunner.class);
+
+    @Autowired
+    private ItemImportService importService;
+
+    @Value("${items.import.file}")
+    private Path file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        log.info("Importing items from {}", file);
+        BulkSaveResult result = importService.importFile(file);
+        log.info("Imported {} items from {}, rejected {}", result.saved(), file, result.rejected());
+        result.errors().forEach(error -> log.warn("Rejected item {}: {}", error.index(), error.errors()));
+    }
+}
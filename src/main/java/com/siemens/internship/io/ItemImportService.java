@@ -0,0 +1,51 @@
+package com.siemens.internship.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.service.BulkSaveResult;
+import com.siemens.internship.service.ItemBulkService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads items from CSV or NDJSON input of any size. The input is parsed record by record and handed
+ * to the bulk save, which validates the items (email format and non-empty fields) and writes them in batches,
+ * so the heap used is the same for a small file and for tens of gigabytes.
+ */
+@Service
+public class ItemImportService {
+    // a huge file full of invalid rows must not fill the heap with errors
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private ItemBulkService itemBulkService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Imports a file, the format is taken from its extension (.csv, otherwise NDJSON).
+     * @param file the file
+     * @return the number of saved and rejected items and the first errors
+     */
+    public BulkSaveResult importFile(Path file) throws IOException {
+        return importChannel(FileChannel.open(file, StandardOpenOption.READ),
+                ItemFileFormat.fromFileName(file.getFileName().toString()));
+    }
+
+    /**
+     * Imports the records read from a channel. The channel is closed at the end.
+     * @param channel the input
+     * @param format the format of the input
+     * @return the number of saved and rejected items and the first errors
+     */
+    public BulkSaveResult importChannel(ReadableByteChannel channel, ItemFileFormat format) throws IOException {
+        try (ItemFileReader items = new ItemFileReader(channel, format, objectMapper)) {
+            return itemBulkService.saveAll(items, MAX_REPORTED_ERRORS);
+        }
+    }
+}
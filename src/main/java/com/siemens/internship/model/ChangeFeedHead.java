@@ -0,0 +1,24 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The last position handed out in the change feed. Its row is locked while positions are assigned,
+ * so the nodes sharing the database number the committed changes one after the other.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeFeedHead {
+    @Id
+    private String name;
+
+    private long lastPosition;
+}
@@ -0,0 +1,14 @@
+package com.siemens.internship.model;
+
+/**
+ * The kinds of item mutations recorded in the change feed
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    /**
+     * The status was set to PROCESSED by a processing run
+     */
+    PROCESSED
+}
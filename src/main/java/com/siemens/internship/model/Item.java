@@ -1,27 +1,55 @@
 package com.siemens.internship.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.siemens.internship.validator.ValidEmail;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Instant;
 
 @Entity
+// kept in the second-level cache, READ_WRITE keeps it consistent with save, delete and bulk updates
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// the incremental processing pages through the items changed since its last run on the (updatedAt, id) index,
+// the status and email lookups page through their index in id order without sorting
+@Table(indexes = {
+        @Index(name = "idx_item_updated_at_id", columnList = "updatedAt, id"),
+        @Index(name = "idx_item_status_id", columnList = "status, id"),
+        @Index(name = "idx_item_email_id", columnList = "email, id")
+})
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
 public class Item {
+    // pooled sequence - Hibernate reserves 50 ids per round trip, so inserts can be sent as JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
     private Long id;
+
+    // optimistic locking - every update checks and increments it, so concurrent writers cannot silently
+    // overwrite each other; clients send it back (or the ETag) to make their update conditional
+    @Version
+    private Long version;
+
     @NotEmpty
     private String name;
     @NotEmpty
@@ -32,4 +60,22 @@ public class Item {
     // validating email using custom annotation
     @ValidEmail
     private String email;
-}
\ No newline at end of file
+
+    // change tracking - set on every insert and update, bulk updates set it themselves
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    public Item(Long id, String name, String description, String status, String email) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.status = status;
+        this.email = email;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+}
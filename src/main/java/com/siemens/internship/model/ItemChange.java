@@ -0,0 +1,54 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One mutation of an item, written to the outbox table in the transaction of the mutation itself,
+ * so the change feed holds exactly the committed changes. The position is the cursor of the feed.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_item_change_position", columnList = "position"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ItemChange {
+    // pooled like the item ids, so the changes of a processed chunk are inserted as one JDBC batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_change_seq")
+    @SequenceGenerator(name = "item_change_seq", sequenceName = "item_change_seq", allocationSize = 50)
+    private Long id;
+
+    // assigned after the commit in commit order - ids are handed out before the commit,
+    // so a change with a lower id can become visible after one with a higher id
+    private Long position;
+
+    private Long itemId;
+
+    @Enumerated(EnumType.STRING)
+    private ChangeType type;
+
+    // the status after the change, null if it is not known (deleted items, updates keeping the status)
+    private String status;
+
+    private Instant occurredAt;
+
+    public ItemChange(Long itemId, ChangeType type, String status, Instant occurredAt) {
+        this.itemId = itemId;
+        this.type = type;
+        this.status = status;
+        this.occurredAt = occurredAt;
+    }
+}
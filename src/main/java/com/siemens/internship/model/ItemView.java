@@ -0,0 +1,12 @@
+package com.siemens.internship.model;
+
+import java.time.Instant;
+
+/**
+ * Read-only copy of an item for the list endpoints. It is built straight from the selected columns,
+ * so no entity is hydrated, tracked by the persistence context or dirty checked.
+ * Serialized with the same properties as {@link Item}.
+ */
+public record ItemView(Long id, Long version, String name, String description, String status, String email,
+                       Instant updatedAt) {
+}
@@ -0,0 +1,19 @@
+package com.siemens.internship.model;
+
+/**
+ * Lifecycle of a background processing job
+ */
+public enum JobState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED;
+
+    /**
+     * @return true if the job will not change anymore
+     */
+    public boolean isFinished() {
+        return this == COMPLETED || this == CANCELLED || this == FAILED;
+    }
+}
@@ -0,0 +1,44 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A processing run executed in the background. The last processed id is the checkpoint
+ * from which the job continues after a restart - every item up to it is already processed.
+ * The owner is the node running the job; another node takes it over only once the lease has expired.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessingJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    // guards against the runner overwriting a cancellation which happened during a step
+    @Version
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    private JobState state;
+
+    private long processedCount;
+    private Long lastProcessedId;
+    private String error;
+    private String owner;
+    private Instant leaseUntil;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
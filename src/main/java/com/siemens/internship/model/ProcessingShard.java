@@ -0,0 +1,36 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One id range of a sharded processing run and its lease. A node owns the shard until the lease expires;
+ * the last processed id is the checkpoint from which a node taking over an expired lease continues.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessingShard {
+    @Id
+    private Integer id;
+
+    private long fromId;
+    private long toId;
+    private Long lastProcessedId;
+
+    private String owner;
+    private Instant leaseUntil;
+    private Instant completedAt;
+
+    public ProcessingShard(Integer id, long fromId, long toId) {
+        this.id = id;
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+}
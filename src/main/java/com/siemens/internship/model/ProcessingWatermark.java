@@ -0,0 +1,26 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * The point in time up to which a kind of processing has seen every change.
+ * The next run only reads the items changed from there on.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingWatermark {
+    @Id
+    private String name;
+
+    private Instant processedUntil;
+}
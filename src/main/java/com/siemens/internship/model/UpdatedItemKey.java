@@ -0,0 +1,9 @@
+package com.siemens.internship.model;
+
+import java.time.Instant;
+
+/**
+ * Position of an item in the (updatedAt, id) order, the keyset of the incremental processing.
+ */
+public record UpdatedItemKey(Instant updatedAt, Long id) {
+}
@@ -0,0 +1,14 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ChangeFeedHead;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import java.util.Optional;
+
+public interface ChangeFeedHeadRepository extends JpaRepository<ChangeFeedHead, String> {
+    // SELECT ... FOR UPDATE - held until the positions of the pass are committed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ChangeFeedHead> findWithLockByName(String name);
+}
@@ -0,0 +1,26 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ItemChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ItemChangeRepository extends JpaRepository<ItemChange, Long> {
+    // the committed changes which have no position yet, uncommitted inserts of other transactions are not visible
+    List<ItemChange> findByPositionIsNullOrderByIdAsc(Limit limit);
+
+    // the fallback of the change feed for cursors older than its in-memory buffer
+    List<ItemChange> findByPositionGreaterThanOrderByPositionAsc(Long afterPosition, Limit limit);
+
+    @Query("SELECT MAX(c.position) FROM ItemChange c")
+    Long findMaxPosition();
+
+    @Modifying
+    @Query("DELETE FROM ItemChange c WHERE c.occurredAt < :before AND c.position IS NOT NULL")
+    int deleteOccurredBefore(@Param("before") Instant before);
+}
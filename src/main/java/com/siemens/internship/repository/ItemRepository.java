@@ -1,12 +1,90 @@
 package com.siemens.internship.repository;
 
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemView;
+import com.siemens.internship.model.UpdatedItemKey;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
+    // result cached in the query cache until the next insert, update or delete of an Item
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("SELECT id FROM Item")
     List<Long> findAllIds();
+
+    // keyset paging over the primary key, used to walk the table chunk by chunk
+    @Query("SELECT i.id FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // the list endpoints read views built from the columns, not managed entities
+    @Query("SELECT new com.siemens.internship.model.ItemView(i.id, i.version, i.name, i.description, i.status, i.email, i.updatedAt)"
+            + " FROM Item i ORDER BY i.id")
+    List<ItemView> findAllViews();
+
+    // seek pagination - served by the primary key index, so every page costs the same
+    // the type is the entity or a projection such as ItemView
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit, Class<T> type);
+
+    // filtered seek pagination, served by the (status, id) and (email, id) indexes
+    <T> List<T> findByStatusAndIdGreaterThanOrderByIdAsc(String status, Long afterId, Limit limit, Class<T> type);
+
+    <T> List<T> findByEmailAndIdGreaterThanOrderByIdAsc(String email, Long afterId, Limit limit, Class<T> type);
+
+    <T> List<T> findByEmailAndStatusAndIdGreaterThanOrderByIdAsc(String email, String status, Long afterId,
+                                                                 Limit limit, Class<T> type);
+
+    // keyset paging over the items changed since the watermark which are not processed yet - the pages follow
+    // the (updatedAt, id) index, so each one continues where the previous one stopped instead of re-sorting the changes;
+    // the plain >= bound is what the database seeks on, the OR only skips the ties already seen
+    @Query("SELECT new com.siemens.internship.model.UpdatedItemKey(i.updatedAt, i.id) FROM Item i"
+            + " WHERE i.updatedAt >= :#{#after.updatedAt}"
+            + " AND (i.updatedAt > :#{#after.updatedAt} OR i.id > :#{#after.id})"
+            + " AND i.status <> :status ORDER BY i.updatedAt, i.id")
+    List<UpdatedItemKey> findChangedAfter(@Param("after") UpdatedItemKey after, @Param("status") String status,
+                                          Pageable pageable);
+
+    @Query("SELECT i.id FROM Item i WHERE i.id BETWEEN :fromId AND :toId AND i.status <> :status")
+    List<Long> findIdsBetweenWithStatusNot(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                           @Param("status") String status);
+
+    // one query per id range, used by the fork-join processing
+    List<Item> findByIdBetweenOrderByIdAsc(Long fromId, Long toId);
+
+    // server-side cursor for full exports, the caller has to consume it inside a transaction
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Item i ORDER BY i.id")
+    Stream<Item> streamAll();
+
+    @Query("SELECT MIN(i.id) FROM Item i")
+    Long findMinId();
+
+    @Query("SELECT MAX(i.id) FROM Item i")
+    Long findMaxId();
+
+    // set-based updates which never load the entities, only the number of affected rows comes back
+    // the entity callbacks do not run for them, so they set the change timestamp themselves,
+    // and they increment the version, so an update based on the previous state is rejected;
+    // a row already in the status is left alone, so its version, change timestamp and ETag stay valid
+    @Modifying
+    @Query("UPDATE Item i SET i.status = :status, i.updatedAt = :updatedAt, i.version = i.version + 1"
+            + " WHERE i.id IN :ids AND i.status <> :status")
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("status") String status,
+                          @Param("updatedAt") Instant updatedAt);
 }
@@ -0,0 +1,26 @@
+package com.siemens.internship.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Queries of {@link ItemRepository} which are built at runtime.
+ */
+public interface ItemRepositoryCustom {
+    /**
+     * The item properties which can be selected with {@link #findFieldsPage}.
+     */
+    Set<String> SELECTABLE_FIELDS = Set.of("id", "version", "name", "description", "status", "email", "updatedAt");
+
+    /**
+     * Returns only the given properties of the page of items which follows the given id.
+     * @param fields the properties to select, in the order of the returned maps - only {@link #SELECTABLE_FIELDS}
+     * @param status the status to match, null for any status
+     * @param email the email to match, null for any email
+     * @param afterId the last id of the previous page
+     * @param limit the maximum number of items
+     * @return one map from property to value per item, ordered by id
+     */
+    List<Map<String, Object>> findFieldsPage(List<String> fields, String status, String email, Long afterId, int limit);
+}
@@ -0,0 +1,53 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // only the requested columns are selected, the rows come back as tuples and never as entities
+    @Override
+    public List<Map<String, Object>> findFieldsPage(List<String> fields, String status, String email, Long afterId, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Item> item = query.from(Item.class);
+        query.multiselect(fields.stream()
+                .<Selection<?>>map(field -> item.get(field).alias(field))
+                .toList());
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(builder.greaterThan(item.get("id"), afterId));
+        if (status != null) {
+            predicates.add(builder.equal(item.get("status"), status));
+        }
+        if (email != null) {
+            predicates.add(builder.equal(item.get("email"), email));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(builder.asc(item.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    fields.forEach(field -> values.put(field, tuple.get(field)));
+                    return values;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.JobState;
+import com.siemens.internship.model.ProcessingJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProcessingJobRepository extends JpaRepository<ProcessingJob, Long> {
+    @Query("SELECT j.id FROM ProcessingJob j WHERE j.state IN :states"
+            + " AND (j.owner IS NULL OR j.owner = :owner OR j.leaseUntil < :now) ORDER BY j.id")
+    List<Long> findClaimableIds(@Param("states") Collection<JobState> states, @Param("owner") String owner,
+                                @Param("now") Instant now);
+
+    // the version moves on, so the previous owner's next save fails instead of overwriting the new owner
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.owner = :owner, j.leaseUntil = :leaseUntil, j.version = j.version + 1"
+            + " WHERE j.id = :id AND j.state IN :states"
+            + " AND (j.owner IS NULL OR j.owner = :owner OR j.leaseUntil < :now)")
+    int claim(@Param("id") Long id, @Param("states") Collection<JobState> states, @Param("owner") String owner,
+              @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil);
+
+    // a stopping node hands its jobs back, so the next node to start or poll resumes them without waiting for the lease
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.owner = NULL, j.leaseUntil = :now, j.version = j.version + 1"
+            + " WHERE j.owner = :owner AND j.state IN :states")
+    int release(@Param("owner") String owner, @Param("states") Collection<JobState> states, @Param("now") Instant now);
+
+    // one statement, so a cancellation never fails on the version the runner moved on meanwhile
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.state = com.siemens.internship.model.JobState.CANCELLED,"
+            + " j.updatedAt = :now, j.version = j.version + 1 WHERE j.id = :id AND j.state IN :states")
+    int cancel(@Param("id") Long id, @Param("states") Collection<JobState> states, @Param("now") Instant now);
+}
@@ -0,0 +1,37 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+// leases are taken and kept with conditional updates instead of SELECT ... FOR UPDATE SKIP LOCKED:
+// of the nodes racing for a shard only one sees an updated row, and no row lock is held between statements
+public interface ProcessingShardRepository extends JpaRepository<ProcessingShard, Integer> {
+    @Query("SELECT s.id FROM ProcessingShard s WHERE s.completedAt IS NULL"
+            + " AND (s.owner IS NULL OR s.leaseUntil < :now) ORDER BY s.id")
+    List<Integer> findClaimableIds(@Param("now") Instant now);
+
+    long countByCompletedAtIsNull();
+
+    @Modifying
+    @Query("UPDATE ProcessingShard s SET s.owner = :owner, s.leaseUntil = :leaseUntil WHERE s.id = :id"
+            + " AND s.completedAt IS NULL AND (s.owner IS NULL OR s.leaseUntil < :now)")
+    int claim(@Param("id") Integer id, @Param("owner") String owner,
+              @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil);
+
+    // 0 means the lease expired and another node took the shard over
+    @Modifying
+    @Query("UPDATE ProcessingShard s SET s.lastProcessedId = :lastProcessedId, s.leaseUntil = :leaseUntil"
+            + " WHERE s.id = :id AND s.owner = :owner")
+    int renew(@Param("id") Integer id, @Param("owner") String owner,
+              @Param("lastProcessedId") Long lastProcessedId, @Param("leaseUntil") Instant leaseUntil);
+
+    @Modifying
+    @Query("UPDATE ProcessingShard s SET s.completedAt = :now, s.owner = NULL WHERE s.id = :id AND s.owner = :owner")
+    int complete(@Param("id") Integer id, @Param("owner") String owner, @Param("now") Instant now);
+}
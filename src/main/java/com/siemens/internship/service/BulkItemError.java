@@ -0,0 +1,11 @@
+package com.siemens.internship.service;
+
+import java.util.Map;
+
+/**
+ * Validation or version errors of one item of a bulk request
+ * @param index the position of the item in the request, starting at 0
+ * @param errors the messages per field, in the same format as a single create
+ */
+public record BulkItemError(long index, Map<String, String> errors) {
+}
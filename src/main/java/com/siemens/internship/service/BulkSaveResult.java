@@ -0,0 +1,12 @@
+package com.siemens.internship.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk create/upsert
+ * @param saved the number of saved items
+ * @param rejected the number of items rejected by the validation or for a stale version
+ * @param errors the errors of the rejected items, possibly only the first ones
+ */
+public record BulkSaveResult(long saved, long rejected, List<BulkItemError> errors) {
+}
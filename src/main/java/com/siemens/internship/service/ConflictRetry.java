@@ -0,0 +1,33 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ItemProcessingProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Repeats a transaction which lost an optimistic locking race against a concurrent update.
+ * The work has to start its own transaction, so every attempt reloads the current state of the items.
+ */
+@Component
+class ConflictRetry {
+    @Autowired
+    private ItemProcessingProperties processingProperties;
+    @Autowired
+    private ProcessingMetrics processingMetrics;
+
+    <T> T execute(Supplier<T> work) {
+        for (int retries = 0; ; retries++) {
+            try {
+                return work.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (retries >= processingProperties.getMaxConflictRetries()) {
+                    throw e;
+                }
+                processingMetrics.conflict();
+            }
+        }
+    }
+}
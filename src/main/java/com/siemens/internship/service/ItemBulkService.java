@@ -0,0 +1,222 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ItemProcessingProperties;
+import com.siemens.internship.model.ChangeType;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChange;
+import com.siemens.internship.repository.ItemRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and updates many items at once. The items are consumed in batches of chunk size:
+ * every batch is validated in parallel and its valid items are written with one JDBC batch,
+ * so at most two batches are held in memory whatever the number of items.
+ */
+@Service
+public class ItemBulkService {
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemProcessingProperties processingProperties;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private Validator validator;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private ProcessingExecutor processingExecutor;
+    @Autowired
+    private ItemChangeOutbox changeOutbox;
+    @Autowired
+    private ConflictRetry conflictRetry;
+
+    /**
+     * Validates and saves the given items. Items without an id, or with the id of no stored item, are created,
+     * the others are updated - only if they still have the given version, when a version is given.
+     * An item with a stale version is rejected with a "version" error, like an invalid one.
+     * Each batch is committed on its own, so the batches before a failure stay saved.
+     * @param items the items, read lazily
+     * @return the number of saved items and the errors of the rejected ones
+     */
+    public BulkSaveResult saveAll(Iterator<Item> items) {
+        return saveAll(items, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #saveAll(Iterator)}, keeping only the first errors, so the result of a huge input stays small.
+     * While a batch is written, the next one is already read and validated.
+     * @param items the items, read lazily
+     * @param maxReportedErrors the maximum number of errors in the result, the others are only counted
+     * @return the number of saved and rejected items and the first errors
+     */
+    public BulkSaveResult saveAll(Iterator<Item> items, int maxReportedErrors) {
+        int batchSize = processingProperties.getChunkSize();
+        List<BulkItemError> errors = new ArrayList<>();
+        long rejected = 0;
+        long saved = 0;
+        long index = 0;
+        CompletableFuture<BatchResult> pendingSave = CompletableFuture.completedFuture(BatchResult.EMPTY);
+
+        List<Item> batch = new ArrayList<>(batchSize);
+        while (items.hasNext()) {
+            batch.add(items.next());
+            if (batch.size() == batchSize || !items.hasNext()) {
+                List<IndexedItem> validItems = validateBatch(batch, index, errors, maxReportedErrors);
+                rejected += batch.size() - validItems.size();
+                index += batch.size();
+                batch = new ArrayList<>(batchSize);
+
+                // at most one batch is written while the next one is read
+                BatchResult written = pendingSave.join();
+                saved += written.saved();
+                rejected += addErrors(written.conflicts(), errors, maxReportedErrors);
+                pendingSave = validItems.isEmpty()
+                        ? CompletableFuture.completedFuture(BatchResult.EMPTY)
+                        : processingExecutor.supply(() -> saveBatch(validItems));
+            }
+        }
+        BatchResult written = pendingSave.join();
+        saved += written.saved();
+        rejected += addErrors(written.conflicts(), errors, maxReportedErrors);
+        // the conflicts of a batch are only known after the validation of the next one
+        errors.sort(Comparator.comparingLong(BulkItemError::index));
+        return new BulkSaveResult(saved, rejected, errors);
+    }
+
+    // validation is CPU bound and independent per item, so the batch is validated in parallel
+    private List<IndexedItem> validateBatch(List<Item> batch, long firstIndex, List<BulkItemError> errors,
+                                            int maxReportedErrors) {
+        List<Map<String, String>> batchErrors = batch.parallelStream()
+                .map(this::validate)
+                .toList();
+
+        List<IndexedItem> validItems = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (batchErrors.get(i).isEmpty()) {
+                validItems.add(new IndexedItem(firstIndex + i, batch.get(i)));
+            } else if (errors.size() < maxReportedErrors) {
+                errors.add(new BulkItemError(firstIndex + i, batchErrors.get(i)));
+            }
+        }
+        return validItems;
+    }
+
+    private static int addErrors(List<BulkItemError> newErrors, List<BulkItemError> errors, int maxReportedErrors) {
+        newErrors.stream()
+                .limit(Math.max(0, maxReportedErrors - errors.size()))
+                .forEach(errors::add);
+        return newErrors.size();
+    }
+
+    // a concurrent update of a stored item between the load and the flush fails the transaction,
+    // the batch is then repeated on the new versions; if it keeps losing, its items are reported as conflicts
+    private BatchResult saveBatch(List<IndexedItem> validItems) {
+        BatchResult result;
+        try {
+            result = conflictRetry.execute(() -> transactionTemplate.execute(status -> saveBatchOnce(validItems)));
+        } catch (OptimisticLockingFailureException e) {
+            return new BatchResult(0, List.of(), validItems.stream()
+                    .map(item -> new BulkItemError(item.index(),
+                            Map.of("version", "the item was updated concurrently, try again")))
+                    .toList());
+        }
+        // updated items must not be served stale from the findById cache; evicted rather than put,
+        // so a concurrent update committed in between is not overwritten with the older instance
+        Cache cache = cacheManager.getCache(ItemService.ITEMS_CACHE);
+        result.savedIds().forEach(cache::evict);
+        return result;
+    }
+
+    private BatchResult saveBatchOnce(List<IndexedItem> validItems) {
+        List<BulkItemError> conflicts = new ArrayList<>();
+        List<Item> toSave = toSave(validItems, conflicts);
+        // only the stored items already have an id, the others are created by the save
+        Set<Long> updatedIds = toSave.stream()
+                .map(Item::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        List<Item> saved = itemRepository.saveAll(toSave);
+        itemRepository.flush();
+        Instant now = Instant.now();
+        changeOutbox.record(saved.stream()
+                .map(item -> new ItemChange(item.getId(),
+                        updatedIds.contains(item.getId()) ? ChangeType.UPDATED : ChangeType.CREATED,
+                        item.getStatus(), now))
+                .toList());
+        return new BatchResult(saved.size(), saved.stream().map(Item::getId).toList(), conflicts);
+    }
+
+    // the stored items of the batch are loaded with one query and updated in place, so their versions are checked;
+    // an item with a stale version is left out and reported, the rest of the batch is saved
+    private List<Item> toSave(List<IndexedItem> items, List<BulkItemError> conflicts) {
+        Map<Long, Item> storedItems = new HashMap<>();
+        itemRepository.findAllById(items.stream()
+                        .map(indexed -> indexed.item().getId())
+                        .filter(Objects::nonNull)
+                        .toList())
+                .forEach(item -> storedItems.put(item.getId(), item));
+
+        List<Item> toSave = new ArrayList<>(items.size());
+        for (IndexedItem indexed : items) {
+            Item item = indexed.item();
+            Item stored = item.getId() == null ? null : storedItems.get(item.getId());
+            if (stored == null) {
+                item.setId(null);
+                item.setVersion(null);
+                toSave.add(item);
+                continue;
+            }
+            if (item.getVersion() != null && !item.getVersion().equals(stored.getVersion())) {
+                conflicts.add(new BulkItemError(indexed.index(), Map.of("version",
+                        "is " + item.getVersion() + " but the stored item is at version " + stored.getVersion())));
+                continue;
+            }
+            stored.setName(item.getName());
+            stored.setDescription(item.getDescription());
+            stored.setStatus(item.getStatus());
+            stored.setEmail(item.getEmail());
+            toSave.add(stored);
+        }
+        return toSave;
+    }
+
+    // same field -> message map as the BindingResult of a single create
+    private Map<String, String> validate(Item item) {
+        Map<String, String> errors = new HashMap<>();
+        if (item == null) {
+            errors.put("item", "must not be null");
+            return errors;
+        }
+        for (ConstraintViolation<Item> violation : validator.validate(item)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private record IndexedItem(long index, Item item) {
+    }
+
+    private record BatchResult(int saved, List<Long> savedIds, List<BulkItemError> conflicts) {
+        static final BatchResult EMPTY = new BatchResult(0, List.of(), List.of());
+    }
+}
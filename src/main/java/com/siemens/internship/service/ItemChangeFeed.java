@@ -0,0 +1,230 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ChangeFeedProperties;
+import com.siemens.internship.model.ChangeFeedHead;
+import com.siemens.internship.model.ItemChange;
+import com.siemens.internship.repository.ChangeFeedHeadRepository;
+import com.siemens.internship.repository.ItemChangeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The committed item changes in commit order, the most recent ones served from a ring buffer in memory.
+ * The writers only insert their changes; after their commit a sequencing pass numbers the committed changes
+ * under a lock in the database, so every node sees the same order and a cursor never passes a change
+ * which becomes visible later. A cursor older than the buffer is answered from the outbox table.
+ * Consumers can wait for the next change (long polling) instead of polling the items.
+ */
+@Component
+public class ItemChangeFeed {
+    private static final Logger log = LoggerFactory.getLogger(ItemChangeFeed.class);
+    static final String HEAD = "items";
+    private static final int SEQUENCE_BATCH = 1000;
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private ItemChangeRepository changeRepository;
+    @Autowired
+    private ChangeFeedHeadRepository headRepository;
+    @Autowired
+    private ChangeFeedProperties feedProperties;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    // the positions head - size + 1 to head, the change at position p is in slot (p - 1) % length
+    private ItemChange[] buffer;
+    private long head;
+    private int size;
+    private final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    // one pass at a time on a single thread, the commits while it is queued are covered by it
+    private final AtomicBoolean sequencingRequested = new AtomicBoolean();
+    private ScheduledExecutorService sequencer;
+
+    @PostConstruct
+    void start() {
+        buffer = new ItemChange[feedProperties.getBufferSize()];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!headRepository.existsById(HEAD)) {
+                    headRepository.save(new ChangeFeedHead(HEAD, 0));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("The change feed head was created by another node");
+        }
+        Long maxPosition = changeRepository.findMaxPosition();
+        head = maxPosition == null ? 0 : maxPosition;
+        long pollInterval = feedProperties.getPollInterval().toMillis();
+        sequencer = Executors.newSingleThreadScheduledExecutor();
+        // the poll numbers what a lost trigger left behind and reads the changes numbered by other nodes
+        sequencer.scheduleWithFixedDelay(this::sequence, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        sequencer.scheduleWithFixedDelay(this::purge, 1, 1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Lets a running pass commit before the database goes away, the changes left are numbered after the next start.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        sequencer.shutdown();
+        if (!sequencer.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Sequencing the item changes did not finish within {}s", SHUTDOWN_TIMEOUT_SECONDS);
+            sequencer.shutdownNow();
+        }
+    }
+
+    /**
+     * Called after a transaction with changes has committed, numbers its changes right away.
+     */
+    void committed() {
+        if (sequencingRequested.compareAndSet(false, true)) {
+            try {
+                sequencer.execute(this::sequence);
+            } catch (RejectedExecutionException e) {
+                // shutting down - the commit is done, its changes are numbered by the next pass of any node
+                log.debug("Item changes committed during shutdown are numbered later");
+            }
+        }
+    }
+
+    /**
+     * Returns the changes after the given cursor, without waiting.
+     * @param afterPosition the position of the last change the consumer has seen, 0 for all retained changes
+     * @param limit the maximum number of changes
+     * @return the changes ordered by position
+     */
+    public List<ItemChange> changesAfter(long afterPosition, int limit) {
+        synchronized (this) {
+            if (afterPosition >= head - size) {
+                List<ItemChange> changes = new ArrayList<>();
+                for (long position = afterPosition + 1; position <= head && changes.size() < limit; position++) {
+                    changes.add(buffer[slot(position)]);
+                }
+                return changes;
+            }
+        }
+        return changeRepository.findByPositionGreaterThanOrderByPositionAsc(afterPosition, Limit.of(limit));
+    }
+
+    /**
+     * Returns the changes after the given cursor, waiting up to the given time for the next change if there is none.
+     * @return the changes ordered by position, empty if nothing changed within the wait time
+     */
+    public CompletableFuture<List<ItemChange>> awaitChangesAfter(long afterPosition, int limit, Duration wait) {
+        List<ItemChange> changes = changesAfter(afterPosition, limit);
+        if (!changes.isEmpty() || wait.isZero()) {
+            return CompletableFuture.completedFuture(changes);
+        }
+        CompletableFuture<Void> signal = new CompletableFuture<>();
+        synchronized (this) {
+            waiters.add(signal);
+        }
+        // a change published between the first read and the registration is picked up here
+        List<ItemChange> published = changesAfter(afterPosition, limit);
+        if (!published.isEmpty()) {
+            removeWaiter(signal);
+            return CompletableFuture.completedFuture(published);
+        }
+        // not read on the sequencer thread, and a cursor behind the buffer reads the table
+        return signal.completeOnTimeout(null, wait.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((i, e) -> removeWaiter(signal))
+                .thenApplyAsync(i -> changesAfter(afterPosition, limit), applicationTaskExecutor);
+    }
+
+    private void sequence() {
+        sequencingRequested.set(false);
+        try {
+            List<ItemChange> sequenced;
+            do {
+                sequenced = transactionTemplate.execute(status -> assignPositions());
+                if (!sequenced.isEmpty() && sequenced.get(0).getPosition() == head + 1) {
+                    publish(sequenced);
+                } else {
+                    catchUp();
+                }
+            } while (sequenced.size() == SEQUENCE_BATCH);
+        } catch (RuntimeException e) {
+            log.warn("Sequencing the item changes failed, retrying on the next poll", e);
+        }
+    }
+
+    // the head row lock orders the passes of all nodes, a pass commits before the next one reads
+    private List<ItemChange> assignPositions() {
+        ChangeFeedHead feedHead = headRepository.findWithLockByName(HEAD).orElseThrow();
+        List<ItemChange> changes = changeRepository.findByPositionIsNullOrderByIdAsc(Limit.of(SEQUENCE_BATCH));
+        long position = feedHead.getLastPosition();
+        for (ItemChange change : changes) {
+            change.setPosition(++position);
+        }
+        feedHead.setLastPosition(position);
+        return changes;
+    }
+
+    // reads the positions numbered by other nodes, so the buffer stays without gaps
+    private void catchUp() {
+        List<ItemChange> changes;
+        do {
+            changes = changeRepository.findByPositionGreaterThanOrderByPositionAsc(head, Limit.of(SEQUENCE_BATCH));
+            publish(changes);
+        } while (changes.size() == SEQUENCE_BATCH);
+    }
+
+    // adds the next positions to the buffer and wakes up the waiting consumers
+    private void publish(List<ItemChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<Void>> woken;
+        synchronized (this) {
+            for (ItemChange change : changes) {
+                head = change.getPosition();
+                if (buffer.length > 0) {
+                    buffer[slot(head)] = change;
+                    size = Math.min(size + 1, buffer.length);
+                }
+            }
+            woken = new ArrayList<>(waiters);
+            waiters.clear();
+        }
+        woken.forEach(waiter -> waiter.complete(null));
+    }
+
+    private int slot(long position) {
+        return (int) ((position - 1) % buffer.length);
+    }
+
+    private synchronized void removeWaiter(CompletableFuture<Void> signal) {
+        waiters.remove(signal);
+    }
+
+    private void purge() {
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    changeRepository.deleteOccurredBefore(Instant.now().minus(feedProperties.getRetention())));
+            log.debug("Purged {} item changes older than {}", purged, feedProperties.getRetention());
+        } catch (RuntimeException e) {
+            log.warn("Purging the item changes failed", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.ChangeType;
+import com.siemens.internship.model.ItemChange;
+import com.siemens.internship.repository.ItemChangeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Writes item changes to the outbox table as part of the transaction of the mutation
+ * and lets the change feed number them once that transaction has committed.
+ * A rolled back mutation leaves neither a row nor an event behind.
+ */
+@Component
+public class ItemChangeOutbox {
+    @Autowired
+    private ItemChangeRepository changeRepository;
+    @Autowired
+    private ItemChangeFeed changeFeed;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long itemId, ChangeType type, String status) {
+        record(List.of(new ItemChange(itemId, type, status, Instant.now())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProcessed(List<Long> itemIds) {
+        Instant now = Instant.now();
+        record(itemIds.stream()
+                .map(itemId -> new ItemChange(itemId, ChangeType.PROCESSED, "PROCESSED", now))
+                .toList());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<ItemChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        changeRepository.saveAll(changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changeFeed.committed();
+            }
+        });
+    }
+}
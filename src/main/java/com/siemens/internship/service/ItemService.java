@@ -1,36 +1,224 @@
 package com.siemens.internship.service;
 
+import com.siemens.internship.config.ItemProcessingProperties;
+import com.siemens.internship.model.ChangeType;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemView;
+import com.siemens.internship.model.ProcessingWatermark;
+import com.siemens.internship.model.UpdatedItemKey;
 import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ItemRepositoryCustom;
+import com.siemens.internship.repository.ProcessingWatermarkRepository;
+import com.siemens.internship.service.ProcessingMetrics.Phase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ItemService {
+    public static final String ITEMS_CACHE = "items";
+    static final String INCREMENTAL_WATERMARK = "incremental";
+
     @Autowired
     private ItemRepository itemRepository;
-    private static ExecutorService executor = Executors.newFixedThreadPool(10);
+    @Autowired
+    private ItemProcessingProperties processingProperties;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private ProcessingExecutor processingExecutor;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private ProcessingMetrics processingMetrics;
+    @Autowired
+    private ProcessingRunLimiter runLimiter;
+    @Autowired
+    private RangeProcessor rangeProcessor;
+    @Autowired
+    private ConflictRetry conflictRetry;
+    @Autowired
+    private ProcessingWatermarkRepository watermarkRepository;
+    @Autowired
+    private ItemChangeOutbox changeOutbox;
 
-    public List<Item> findAll() {
-        return itemRepository.findAll();
+    // read-only transactions - Hibernate skips the snapshots for dirty checking and never flushes
+
+    @Transactional(readOnly = true)
+    public List<ItemView> findAll() {
+        return itemRepository.findAllViews();
+    }
+
+    /**
+     * Returns the page of items which follows the given id (keyset pagination).
+     * @param afterId the last id of the previous page, null for the first page
+     * @param limit the maximum number of items
+     * @return the items ordered by id
+     */
+    @Transactional(readOnly = true)
+    public List<ItemView> findPage(Long afterId, int limit) {
+        return findPage(null, null, afterId, limit);
     }
 
+    /**
+     * Returns the page of items with the given status and/or email which follows the given id.
+     * @param status the status to match, null for any status
+     * @param email the email to match, null for any email
+     * @param afterId the last id of the previous page, null for the first page
+     * @param limit the maximum number of items
+     * @return the matching items ordered by id
+     */
+    @Transactional(readOnly = true)
+    public List<ItemView> findPage(String status, String email, Long afterId, int limit) {
+        Long after = afterId == null ? Long.MIN_VALUE : afterId;
+        // the email is the more selective column, so it leads when both are given
+        if (email != null && status != null) {
+            return itemRepository.findByEmailAndStatusAndIdGreaterThanOrderByIdAsc(
+                    email, status, after, Limit.of(limit), ItemView.class);
+        }
+        if (email != null) {
+            return itemRepository.findByEmailAndIdGreaterThanOrderByIdAsc(email, after, Limit.of(limit), ItemView.class);
+        }
+        if (status != null) {
+            return itemRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, after, Limit.of(limit), ItemView.class);
+        }
+        return itemRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit), ItemView.class);
+    }
+
+    /**
+     * Returns only the given properties of the page of items which follows the given id.
+     * @param fields the properties to select, see {@link ItemRepositoryCustom#SELECTABLE_FIELDS}
+     * @return one map from property to value per item, ordered by id
+     * @throws IllegalArgumentException if a property cannot be selected
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsPage(List<String> fields, String status, String email, Long afterId, int limit) {
+        // checked here, the repository would translate the exception into a data access exception
+        for (String field : fields) {
+            if (!ItemRepositoryCustom.SELECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        return itemRepository.findFieldsPage(fields, status, email, afterId == null ? Long.MIN_VALUE : afterId, limit);
+    }
+
+    /**
+     * Hands every item to the given consumer while reading them through a database cursor.
+     * The items are detached right after they are consumed, so the persistence context does not grow.
+     * @param itemConsumer receives the items ordered by id
+     */
+    @Transactional(readOnly = true)
+    public void forEachItem(Consumer<Item> itemConsumer) {
+        try (Stream<Item> items = itemRepository.streamAll()) {
+            items.forEach(item -> {
+                itemConsumer.accept(item);
+                entityManager.detach(item);
+            });
+        }
+    }
+
+    // hot ids are served from the cache, misses are not cached so a later create is never hidden
+    @Cacheable(cacheNames = ITEMS_CACHE, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Optional<Item> findById(Long id) {
         return itemRepository.findById(id);
     }
 
+    // always creates a new item - an id or version in the request is ignored, updates go through update()
+    @CachePut(cacheNames = ITEMS_CACHE, key = "#result.id")
+    @Transactional
     public Item save(Item item) {
-        return itemRepository.save(item);
+        item.setId(null);
+        item.setVersion(null);
+        Item saved = itemRepository.save(item);
+        changeOutbox.record(saved.getId(), ChangeType.CREATED, saved.getStatus());
+        return saved;
+    }
+
+    /**
+     * Writes the non-null fields of the given item onto the stored one, in a transaction of its own.
+     * The item is loaded, usually from the second-level cache, and written as an entity update, so only its own
+     * cache entry is replaced; a bulk statement would invalidate the cached items of every id.
+     * The version makes the update conditional - the item is only changed if it still has that version.
+     * A concurrent update between the load and the write fails the version check of the write, the update is
+     * then repeated on the new state: a conditional one finds another version, an unconditional one wins.
+     * @param id the id of the item to update
+     * @param changes the new name, description, status and/or email, null fields are kept
+     * @param expectedVersion the version the client based the changes on, null to update any version
+     * @return the stored item after the update, or empty if there is no item with the given id or it has another version
+     */
+    @CacheEvict(cacheNames = ITEMS_CACHE, key = "#id")
+    public Optional<Item> update(Long id, Item changes, Long expectedVersion) {
+        return conflictRetry.execute(() -> transactionTemplate.execute(status -> {
+            Item item = entityManager.find(Item.class, id);
+            if (item == null || (expectedVersion != null && !expectedVersion.equals(item.getVersion()))) {
+                return Optional.<Item>empty();
+            }
+            Optional.ofNullable(changes.getName()).ifPresent(item::setName);
+            Optional.ofNullable(changes.getDescription()).ifPresent(item::setDescription);
+            Optional.ofNullable(changes.getStatus()).ifPresent(item::setStatus);
+            Optional.ofNullable(changes.getEmail()).ifPresent(item::setEmail);
+            // flushed here, so the returned item carries the version it was written with
+            entityManager.flush();
+            changeOutbox.record(id, ChangeType.UPDATED, item.getStatus());
+            return Optional.of(item);
+        }));
+    }
+
+    /**
+     * Deletes the item as an entity, so only its own entry leaves the second-level cache.
+     * @return true if the item existed
+     */
+    @CacheEvict(cacheNames = ITEMS_CACHE)
+    public boolean deleteById(Long id) {
+        // a concurrent update fails the version check of the delete, which is then repeated
+        return conflictRetry.execute(() -> transactionTemplate.execute(status -> {
+            Item item = entityManager.find(Item.class, id);
+            if (item == null) {
+                return false;
+            }
+            entityManager.remove(item);
+            entityManager.flush();
+            changeOutbox.record(id, ChangeType.DELETED, null);
+            return true;
+        }));
     }
 
-    public void deleteById(Long id) {
-        itemRepository.deleteById(id);
+    // only asked when a conditional write changed nothing, to tell a missing item from a stale version
+    public boolean existsById(Long id) {
+        return itemRepository.existsById(id);
     }
 
 
@@ -58,48 +246,312 @@ public class ItemService {
     // - the exceptions were only printed (can fail silently)
     // - it used @Async, but returned a List instead of CompletableFuture (using List would run the method synchronously)
     // - processedItems was a shared field (memory issues) and was not reset
+    // - one task, one findById and one save per item does not scale to large tables,
+    //   so the ids are now paged and every chunk is loaded, updated and saved in a single transaction
 
     @Async
     public CompletableFuture<List<Item>> processItemsAsync() {
-        List<Long> itemIds = itemRepository.findAllIds();
-
-        // made processedItems and processedCount local
-        List<Item> processedItems = new CopyOnWriteArrayList<>(); // use thread-safe collection
-        AtomicInteger processedCount = new AtomicInteger(0); // use atomic variable for thread-safety
-
-        // switched to streams for cleaner processing
-        List<CompletableFuture<Void>> completableFutures = itemIds.stream()
-                .map(id -> CompletableFuture.runAsync(() -> {
-                    try {
-                        Thread.sleep(100);
-
-                        // modified findById to use ifPresent - easier to maintain
-                        itemRepository.findById(id).ifPresent(item -> {
-                            item.setStatus("PROCESSED");
-                            itemRepository.save(item);
-                            processedItems.add(item);
-                            processedCount.incrementAndGet();
-                        });
-                    } catch (InterruptedException e) { // proper exception handling
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException(
-                                "Thread interrupted while processing item with ID " +
-                                id, e);
-                    } catch (IllegalArgumentException e) {
-                        throw new RuntimeException(
-                                "Illegal argument ", e
-                        );
-                    } catch (Exception e) {
-                        throw new RuntimeException(
-                                "Failed to process item with ID " + id, e);
-                    }
-                }, executor))
-                .toList();
-
-        // wait for all tasks to complete, then return processedItems
-        return CompletableFuture.allOf(completableFutures
-                        .toArray(new CompletableFuture[0]))
-                .thenApply(i -> processedItems);
+        ProcessingRunLimiter.Run run = runLimiter.start();
+        try {
+            int chunkSize = processingProperties.getChunkSize();
+            List<CompletableFuture<List<Item>>> chunks = new ArrayList<>();
+
+            // walk the ids with keyset paging instead of loading all of them at once
+            // once the executor queue is full, this loop is throttled (caller runs) or the run fails (abort)
+            Long afterId = Long.MIN_VALUE;
+            List<Long> chunkIds;
+            while (!(chunkIds = fetchIdsAfter(afterId, chunkSize)).isEmpty()) {
+                List<Long> ids = chunkIds;
+                chunks.add(processingExecutor.supply(() -> processChunk(ids)));
+                afterId = ids.get(ids.size() - 1);
+            }
+
+            // wait for all chunks to complete, then gather the processed items
+            return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                    .thenApply(i -> chunks.stream()
+                            .flatMap(chunk -> chunk.join().stream())
+                            .toList())
+                    .whenComplete((items, e) -> run.close());
+        } catch (RuntimeException e) {
+            run.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Processes every item chunk by chunk and hands each processed chunk to the given consumer as soon as it is saved.
+     * At most twice the parallelism chunks are in flight, so memory stays bounded whatever the table size.
+     * The consumer is called from the processing threads, so it has to be thread-safe.
+     * Blocks until all chunks are processed. The caller holds the run, see {@link ProcessingRunLimiter#start()},
+     * so it can answer a rejection before it starts streaming.
+     * @param chunkConsumer receives the processed items of every chunk
+     * @return the number of processed items
+     */
+    public long processItems(Consumer<List<Item>> chunkConsumer) throws InterruptedException {
+        int chunkSize = processingProperties.getChunkSize();
+        int window = processingProperties.getParallelism() * 2;
+        Semaphore inFlight = new Semaphore(window);
+        AtomicLong processedCount = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Long afterId = Long.MIN_VALUE;
+        List<Long> chunkIds;
+        while (failure.get() == null
+                && !(chunkIds = fetchIdsAfter(afterId, chunkSize)).isEmpty()) {
+            List<Long> ids = chunkIds;
+            inFlight.acquire();
+            processingExecutor.supply(() -> processChunk(ids))
+                    .thenAccept(items -> {
+                        chunkConsumer.accept(items);
+                        processedCount.addAndGet(items.size());
+                    })
+                    .whenComplete((i, e) -> {
+                        if (e != null) {
+                            failure.compareAndSet(null, e);
+                        }
+                        inFlight.release();
+                    });
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        // taking every permit means that all the chunks in flight have completed
+        inFlight.acquire(window);
+        if (failure.get() != null) {
+            throw new CompletionException(failure.get());
+        }
+        return processedCount.get();
     }
-}
 
+    /**
+     * Processes the items which follow the given checkpoint - as many chunks as can run in parallel -
+     * and waits for all of them, so the returned last id can be persisted as the next checkpoint.
+     * Once a stop is requested the chunks which have not started yet are skipped, the running ones still commit.
+     * @param afterId the checkpoint, null to start from the first item
+     * @param stopRequested asked before every chunk
+     * @return the processed step, or null if there are no items after the checkpoint
+     */
+    public ProcessingStep processStep(Long afterId, BooleanSupplier stopRequested) {
+        int chunkSize = processingProperties.getChunkSize();
+        List<Long> ids = fetchIdsAfter(afterId == null ? Long.MIN_VALUE : afterId,
+                chunkSize * processingProperties.getParallelism());
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        List<List<Long>> chunkIds = new ArrayList<>();
+        List<CompletableFuture<List<Item>>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> nextIds = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            chunkIds.add(nextIds);
+            chunks.add(processingExecutor.supply(() -> stopRequested.getAsBoolean() ? null : processChunk(nextIds)));
+        }
+        try {
+            // unlike join() the wait ends when the job thread is interrupted on shutdown
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the chunks of the step");
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+
+        // the checkpoint only moves over the chunks before the first skipped one
+        Long lastId = afterId;
+        long processedCount = 0;
+        boolean skipped = false;
+        for (int i = 0; i < chunks.size(); i++) {
+            List<Item> processed = chunks.get(i).join();
+            if (processed == null) {
+                skipped = true;
+                continue;
+            }
+            processedCount += processed.size();
+            if (!skipped) {
+                lastId = chunkIds.get(i).get(chunkIds.get(i).size() - 1);
+            }
+        }
+        return new ProcessingStep(lastId, processedCount);
+    }
+
+    /**
+     * Marks every item as processed with one UPDATE statement per id range of chunk size,
+     * without loading any entity into the persistence context. The items already processed are not written.
+     * @return the number of updated items
+     */
+    @Async
+    public CompletableFuture<Long> processItemsInBulkAsync() {
+        ProcessingRunLimiter.Run run = runLimiter.start();
+        try {
+            Long minId = itemRepository.findMinId();
+            Long maxId = itemRepository.findMaxId();
+            if (minId == null) {
+                run.close();
+                return CompletableFuture.completedFuture(0L);
+            }
+
+            int chunkSize = processingProperties.getChunkSize();
+            List<CompletableFuture<Integer>> ranges = new ArrayList<>();
+            for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+                long from = fromId;
+                long to = Math.min(fromId + chunkSize - 1, maxId);
+                ranges.add(processingExecutor.supply(() -> processRange(from, to)));
+            }
+
+            return CompletableFuture.allOf(ranges.toArray(new CompletableFuture[0]))
+                    .thenApply(i -> ranges.stream()
+                            .mapToLong(CompletableFuture::join)
+                            .sum())
+                    .whenComplete((count, e) -> run.close());
+        } catch (RuntimeException e) {
+            run.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Processes every item on the fork-join pool, the id space from the smallest to the largest id
+     * is split into ranges which are loaded with one query and saved as one batch each.
+     * No task is scheduled per id or per page of ids, so the scheduling cost stays small for cheap items.
+     * @return the number of processed items
+     */
+    @Async
+    public CompletableFuture<Long> processItemsInRangesAsync() {
+        ProcessingRunLimiter.Run run = runLimiter.start();
+        try {
+            Long minId = itemRepository.findMinId();
+            Long maxId = itemRepository.findMaxId();
+            if (minId == null) {
+                run.close();
+                return CompletableFuture.completedFuture(0L);
+            }
+            return rangeProcessor.process(minId, maxId)
+                    .whenComplete((count, e) -> run.close());
+        } catch (RuntimeException e) {
+            run.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Processes only the items changed since the previous incremental run which are not processed yet,
+     * so a repeated run costs as much as the changes and not as much as the whole table.
+     * The watermark moves forward only when the run succeeded, a failed run is repeated in full by the next one.
+     * @return the number of processed items
+     */
+    @Async
+    public CompletableFuture<Long> processChangedItemsAsync() {
+        ProcessingRunLimiter.Run run = runLimiter.start();
+        try {
+            // the next run starts a little before this one, in case a change was still being committed
+            Instant processedUntil = Instant.now().minus(processingProperties.getIncrementalOverlap());
+            Instant since = watermarkRepository.findById(INCREMENTAL_WATERMARK)
+                    .map(ProcessingWatermark::getProcessedUntil)
+                    .orElse(Instant.EPOCH);
+
+            int chunkSize = processingProperties.getChunkSize();
+            List<CompletableFuture<List<Item>>> chunks = new ArrayList<>();
+            UpdatedItemKey after = new UpdatedItemKey(since, Long.MIN_VALUE);
+            List<UpdatedItemKey> chunkKeys;
+            while (!(chunkKeys = fetchChangedAfter(after, chunkSize)).isEmpty()) {
+                List<Long> ids = chunkKeys.stream().map(UpdatedItemKey::id).toList();
+                chunks.add(processingExecutor.supply(() -> processChunk(ids)));
+                after = chunkKeys.get(chunkKeys.size() - 1);
+            }
+
+            return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                    .thenApply(i -> {
+                        long processedCount = chunks.stream()
+                                .mapToLong(chunk -> chunk.join().size())
+                                .sum();
+                        watermarkRepository.save(new ProcessingWatermark(INCREMENTAL_WATERMARK, processedUntil));
+                        return processedCount;
+                    })
+                    .whenComplete((count, e) -> run.close());
+        } catch (RuntimeException e) {
+            run.close();
+            throw e;
+        }
+    }
+
+    private List<UpdatedItemKey> fetchChangedAfter(UpdatedItemKey after, int count) {
+        return processingMetrics.record(Phase.ID_FETCH, () ->
+                itemRepository.findChangedAfter(after, "PROCESSED", PageRequest.ofSize(count)));
+    }
+
+    private List<Long> fetchIdsAfter(Long afterId, int count) {
+        return processingMetrics.record(Phase.ID_FETCH, () ->
+                itemRepository.findIdsAfter(afterId, PageRequest.ofSize(count)));
+    }
+
+    private int processRange(long fromId, long toId) {
+        try {
+            // the ids of the items not processed yet are selected first,
+            // so the outbox gets a change and the cache an eviction per updated item
+            List<Long> ids = processingMetrics.record(Phase.SAVE, () -> transactionTemplate.execute(status -> {
+                List<Long> rangeIds = itemRepository.findIdsBetweenWithStatusNot(fromId, toId, "PROCESSED");
+                if (rangeIds.isEmpty()) {
+                    return rangeIds;
+                }
+                itemRepository.updateStatusByIds(rangeIds, "PROCESSED", Instant.now());
+                changeOutbox.recordProcessed(rangeIds);
+                return rangeIds;
+            }));
+            Cache cache = itemsCache();
+            ids.forEach(cache::evict);
+            processingMetrics.processed(ids.size());
+            return ids.size();
+        } catch (Exception e) {
+            throw new RuntimeException(
+                    "Failed to process items with IDs from " + fromId + " to " + toId, e);
+        }
+    }
+
+    /**
+     * Loads a chunk of items with one query, marks them as processed and saves them as one JDBC batch.
+     * @param ids the ids of the chunk
+     * @return the processed items
+     */
+    private List<Item> processChunk(List<Long> ids) {
+        try {
+            // an item updated concurrently fails the version check of the batch, so the chunk is reloaded and repeated
+            List<Item> processedItems = conflictRetry.execute(() -> transactionTemplate.execute(status -> {
+                // multi-load serves the ids found in the second-level cache and only queries the rest;
+                // it only looks into the cache with an explicit cache mode
+                List<Item> items = processingMetrics.record(Phase.LOAD, () -> entityManager.unwrap(Session.class)
+                        .byMultipleIds(Item.class)
+                        .with(CacheMode.NORMAL)
+                        .multiLoad(ids).stream()
+                        .filter(Objects::nonNull)
+                        .toList());
+                // an item already processed is not dirty and not written, so it gets no change either
+                List<Long> changedIds = items.stream()
+                        .filter(item -> !"PROCESSED".equals(item.getStatus()))
+                        .map(Item::getId)
+                        .toList();
+                items.forEach(item -> item.setStatus("PROCESSED"));
+                // flushed here, so the save timer covers the JDBC batch and not only the in-memory merge
+                return processingMetrics.record(Phase.SAVE, () -> {
+                    List<Item> saved = itemRepository.saveAll(items);
+                    itemRepository.flush();
+                    changeOutbox.recordProcessed(changedIds);
+                    return saved;
+                });
+            }));
+            // evicted, not written through - an update committed after the chunk may already have evicted
+            // its newer version, and putting the processed instance back would serve the older one
+            Cache cache = itemsCache();
+            processedItems.forEach(item -> cache.evict(item.getId()));
+            processingMetrics.processed(processedItems.size());
+            return processedItems;
+        } catch (Exception e) { // proper exception handling
+            processingMetrics.failed(ids.size());
+            throw new RuntimeException(
+                    "Failed to process items with IDs from " + ids.get(0) +
+                    " to " + ids.get(ids.size() - 1), e);
+        }
+    }
+
+    private Cache itemsCache() {
+        return cacheManager.getCache(ITEMS_CACHE);
+    }
+}
@@ -0,0 +1,181 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ItemProcessingProperties;
+import com.siemens.internship.config.ItemProcessingProperties.ExecutorType;
+import com.siemens.internship.config.ItemProcessingProperties.RejectionPolicy;
+import com.siemens.internship.service.ProcessingMetrics.Phase;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the chunks of the processing pipeline, either on a fixed pool of platform threads
+ * or on one virtual thread per chunk. Whatever the number of chunks in flight, only as many
+ * as the connection pool can serve hit the database at the same time.
+ * At most "queue-capacity" chunks wait for a thread; further chunks run on the submitting thread
+ * or are rejected, depending on the rejection policy.
+ * It is deliberately not exposed as an Executor bean, so Spring Boot still configures its own
+ * executor for @Async and Spring MVC.
+ */
+@Component
+public class ProcessingExecutor {
+    private static final Logger log = LoggerFactory.getLogger(ProcessingExecutor.class);
+
+    @Autowired
+    private ItemProcessingProperties processingProperties;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ProcessingMetrics processingMetrics;
+
+    private ExecutorService executor;
+    private Executor submitter;
+    private Semaphore dbPermits;
+    private Counter rejectedTasks;
+
+    @PostConstruct
+    void start() {
+        rejectedTasks = Counter.builder("items.processing.executor.rejected")
+                .description("Chunks rejected by the processing executor")
+                .register(meterRegistry);
+        ExecutorService virtualThreads = processingProperties.getExecutor() == ExecutorType.VIRTUAL
+                ? newVirtualThreadExecutor()
+                : null;
+        ExecutorService threads = virtualThreads != null ? virtualThreads : newPlatformThreadExecutor();
+        // active, queued and completed tasks of the pool, published as executor.* with name=items.processing
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, threads, "items.processing");
+        // the platform pool bounds its own queue, virtual threads get the same bound through a semaphore
+        submitter = virtualThreads != null ? boundedSubmitter(executor) : executor;
+        dbPermits = new Semaphore(maxDbConcurrency(), true);
+    }
+
+    /**
+     * Lets the running chunks finish, then stops the threads which are still busy after the shutdown timeout.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(processingProperties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Processing executor did not finish within {}, interrupting", processingProperties.getShutdownTimeout());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the given database work asynchronously once a database permit is available.
+     * @param work the work, it should use at most one connection
+     * @return the result of the work
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        long submittedAt = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> withDbPermit(() -> {
+            processingMetrics.record(Phase.QUEUE_WAIT, System.nanoTime() - submittedAt);
+            return work.get();
+        }), submitter);
+    }
+
+    /**
+     * Runs the given database work on the calling thread once a database permit is available,
+     * so work running on other threads than this executor's counts against the same limit.
+     * @param work the work, it should use at most one connection
+     * @return the result of the work
+     */
+    public <T> T withDbPermit(Supplier<T> work) {
+        try {
+            dbPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            return work.get();
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    private int maxDbConcurrency() {
+        if (processingProperties.getMaxDbConcurrency() > 0) {
+            return processingProperties.getMaxDbConcurrency();
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read the connection pool size", e);
+        }
+        return processingProperties.getParallelism();
+    }
+
+    private ExecutorService newPlatformThreadExecutor() {
+        int threads = processingProperties.getParallelism();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(processingProperties.getQueueCapacity()),
+                (task, pool) -> reject(task, pool.isShutdown()));
+    }
+
+    private Executor boundedSubmitter(ExecutorService threads) {
+        Semaphore slots = new Semaphore(processingProperties.getQueueCapacity());
+        return task -> {
+            if (!slots.tryAcquire()) {
+                reject(task, threads.isShutdown());
+                return;
+            }
+            try {
+                threads.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        slots.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                slots.release();
+                throw e;
+            }
+        };
+    }
+
+    private void reject(Runnable task, boolean shutdown) {
+        rejectedTasks.increment();
+        if (shutdown || processingProperties.getRejectionPolicy() == RejectionPolicy.ABORT) {
+            throw new RejectedExecutionException("Processing queue is full, chunk rejected");
+        }
+        // caller runs - the submitting thread is throttled to the speed of the pool
+        task.run();
+    }
+
+    // built through reflection, so the application still compiles and runs on Java 17
+    private ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads need Java 21 or newer, using {} platform threads instead",
+                    processingProperties.getParallelism());
+            return newPlatformThreadExecutor();
+        }
+    }
+}
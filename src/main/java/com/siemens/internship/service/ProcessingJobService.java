@@ -0,0 +1,256 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ClusterProcessingProperties;
+import com.siemens.internship.model.JobState;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.repository.ProcessingJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs processing jobs in the background and keeps their progress in the database,
+ * so a client does not have to hold a request open and a restarted node resumes unfinished jobs
+ * from their last checkpoint instead of starting over. That needs a database which outlives the node:
+ * with the default in-memory H2 the jobs are gone with the node, the cluster profile keeps them in a file.
+ * A job is owned by the node running it through a lease renewed after every step; the other nodes
+ * only take it over once the lease has expired, from the checkpoint of the last completed step.
+ */
+@Service
+public class ProcessingJobService {
+    private static final Logger log = LoggerFactory.getLogger(ProcessingJobService.class);
+    private static final Set<JobState> UNFINISHED = EnumSet.of(JobState.QUEUED, JobState.RUNNING);
+    // how often a job waiting for a run slot looks whether it was cancelled
+    private static final Duration RUN_SLOT_WAIT = Duration.ofSeconds(1);
+
+    @Autowired
+    private ProcessingJobRepository jobRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ProcessingRunLimiter runLimiter;
+    @Autowired
+    private ProcessingNode node;
+    @Autowired
+    private ClusterProcessingProperties clusterProperties;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // jobs run one after the other, every job already processes its chunks in parallel
+    private ExecutorService jobExecutor;
+    private ScheduledExecutorService poller;
+    // the jobs queued or running here, so a job is not queued twice
+    private final Set<Long> scheduledJobs = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void startExecutor() {
+        jobExecutor = Executors.newSingleThreadExecutor();
+        // every node takes over the jobs of a node which stopped renewing its leases, clustered or not:
+        // a node which crashed cannot hand its jobs back, and the one restarted after it has a new id
+        long pollMillis = clusterProperties.getPollInterval().toMillis();
+        poller = Executors.newSingleThreadScheduledExecutor();
+        poller.scheduleWithFixedDelay(this::resumeClaimableJobs, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopExecutor() throws InterruptedException {
+        poller.shutdownNow();
+        // interrupted jobs keep their RUNNING state and checkpoint, their leases are released
+        // so the next node to start or poll resumes them right away
+        jobExecutor.shutdownNow();
+        if (!jobExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Processing jobs did not stop in time, their leases are released anyway");
+        }
+        try {
+            Integer released = transactionTemplate.execute(status ->
+                    jobRepository.release(node.getId(), UNFINISHED, Instant.now()));
+            if (released > 0) {
+                log.info("Released {} unfinished processing jobs", released);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Releasing the processing jobs failed, they are resumed once their leases expire", e);
+        }
+    }
+
+    /**
+     * Resumes the jobs which were queued or running when the application stopped,
+     * unless another node holds a valid lease on them. The jobs still leased are picked up by the poller
+     * once their lease expires.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        resumeClaimableJobs();
+    }
+
+    private void resumeClaimableJobs() {
+        try {
+            jobRepository.findClaimableIds(UNFINISHED, node.getId(), Instant.now()).forEach(jobId -> {
+                if (schedule(jobId)) {
+                    log.info("Resuming processing job {}", jobId);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Looking for processing jobs to resume failed", e);
+        }
+    }
+
+    /**
+     * Creates a new job and queues it for execution.
+     * @return the created job
+     */
+    public ProcessingJob start() {
+        ProcessingJob job = new ProcessingJob();
+        job.setState(JobState.QUEUED);
+        job.setOwner(node.getId());
+        job.setCreatedAt(Instant.now());
+        job.setUpdatedAt(job.getCreatedAt());
+        job.setLeaseUntil(leaseUntil());
+        ProcessingJob saved = jobRepository.save(job);
+        schedule(saved.getId());
+        return saved;
+    }
+
+    public Optional<ProcessingJob> findById(Long id) {
+        return jobRepository.findById(id);
+    }
+
+    /**
+     * Requests the cancellation of a job. The job stops once its running chunks have committed.
+     * @param id the id of the job
+     * @return the job, or empty if there is no job with the given id
+     * @throws IllegalStateException if the job is already finished
+     */
+    public Optional<ProcessingJob> cancel(Long id) {
+        Integer cancelled = transactionTemplate.execute(status -> jobRepository.cancel(id, UNFINISHED, Instant.now()));
+        Optional<ProcessingJob> job = jobRepository.findById(id);
+        if (cancelled == 0 && job.isPresent()) {
+            throw new IllegalStateException("Processing job " + id + " is already " + job.get().getState());
+        }
+        return job;
+    }
+
+    private boolean schedule(Long jobId) {
+        if (!scheduledJobs.add(jobId)) {
+            return false;
+        }
+        try {
+            jobExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    scheduledJobs.remove(jobId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            scheduledJobs.remove(jobId);
+            throw e;
+        }
+    }
+
+    /**
+     * Processes the items step by step, persisting the progress and checkpoint after each step.
+     * The job holds a processing run for its whole duration, so it counts against the concurrent run limit.
+     * The state is read again before every chunk, so a cancellation from any node is noticed within a step.
+     */
+    private void run(Long jobId) {
+        try (ProcessingRunLimiter.Run run = awaitRun(jobId)) {
+            if (run == null || !claim(jobId)) {
+                return;
+            }
+            while (!Thread.currentThread().isInterrupted()) {
+                ProcessingJob job = jobRepository.findById(jobId).orElse(null);
+                if (job == null || job.getState().isFinished()) {
+                    return;
+                }
+                if (!node.getId().equals(job.getOwner())) {
+                    log.info("Processing job {} was taken over by {}", jobId, job.getOwner());
+                    return;
+                }
+
+                ProcessingStep step = itemService.processStep(job.getLastProcessedId(), () -> stopRequested(jobId));
+                if (step == null) {
+                    job.setState(JobState.COMPLETED);
+                } else {
+                    job.setState(JobState.RUNNING);
+                    job.setProcessedCount(job.getProcessedCount() + step.processedCount());
+                    job.setLastProcessedId(step.lastId());
+                    job.setLeaseUntil(leaseUntil());
+                }
+
+                try {
+                    touch(job);
+                } catch (OptimisticLockingFailureException e) {
+                    // the job was cancelled or taken over meanwhile, the next iteration sees it
+                    continue;
+                }
+                if (step == null) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            log.error("Processing job {} failed", jobId, e);
+            jobRepository.findById(jobId).ifPresent(failed -> {
+                failed.setState(JobState.FAILED);
+                failed.setError(e.getMessage());
+                touch(failed);
+            });
+        }
+    }
+
+    // a queued job waits for a free run instead of being rejected like a processing request
+    private ProcessingRunLimiter.Run awaitRun(Long jobId) throws InterruptedException {
+        ProcessingRunLimiter.Run run;
+        while ((run = runLimiter.tryStart(RUN_SLOT_WAIT)) == null) {
+            if (jobRepository.findById(jobId).map(job -> job.getState().isFinished()).orElse(true)) {
+                return null;
+            }
+        }
+        return run;
+    }
+
+    private boolean claim(Long jobId) {
+        Integer claimed = transactionTemplate.execute(status ->
+                jobRepository.claim(jobId, UNFINISHED, node.getId(), Instant.now(), leaseUntil()));
+        return claimed == 1;
+    }
+
+    private boolean stopRequested(Long jobId) {
+        return jobRepository.findById(jobId)
+                .map(job -> job.getState() == JobState.CANCELLED || !node.getId().equals(job.getOwner()))
+                .orElse(true);
+    }
+
+    private Instant leaseUntil() {
+        return Instant.now().plus(clusterProperties.getLeaseDuration());
+    }
+
+    private ProcessingJob touch(ProcessingJob job) {
+        job.setUpdatedAt(Instant.now());
+        return jobRepository.save(job);
+    }
+}
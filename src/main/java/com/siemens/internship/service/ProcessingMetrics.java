@@ -0,0 +1,85 @@
+package com.siemens.internship.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the processing pipeline: one timer per phase (items.processing.phase)
+ * the number of processed and failed items (items.processing.items) and the chunks which were
+ * repeated after an optimistic locking conflict (items.processing.conflicts).
+ * The meters are registered once, recording is a few atomic updates.
+ */
+@Component
+public class ProcessingMetrics {
+
+    public enum Phase {
+        /**
+         * Reading the next page of ids
+         */
+        ID_FETCH,
+        /**
+         * Waiting for a processing thread and a database permit
+         */
+        QUEUE_WAIT,
+        /**
+         * Loading the items of a chunk
+         */
+        LOAD,
+        /**
+         * Writing a chunk or a bulk range until it is flushed
+         */
+        SAVE
+    }
+
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Counter processedItems;
+    private final Counter failedItems;
+    private final Counter conflicts;
+
+    public ProcessingMetrics(MeterRegistry registry) {
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("items.processing.phase")
+                    .description("Time spent in one phase of the item processing")
+                    .tag("phase", phase.name().toLowerCase())
+                    .register(registry));
+        }
+        processedItems = Counter.builder("items.processing.items")
+                .description("Items handled by the processing runs")
+                .tag("outcome", "processed")
+                .register(registry);
+        failedItems = Counter.builder("items.processing.items")
+                .description("Items handled by the processing runs")
+                .tag("outcome", "failed")
+                .register(registry);
+        conflicts = Counter.builder("items.processing.conflicts")
+                .description("Chunks repeated because an item was changed concurrently")
+                .register(registry);
+    }
+
+    public <T> T record(Phase phase, Supplier<T> work) {
+        return phaseTimers.get(phase).record(work);
+    }
+
+    public void record(Phase phase, long durationNanos) {
+        phaseTimers.get(phase).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void processed(long count) {
+        processedItems.increment(count);
+    }
+
+    public void failed(long count) {
+        failedItems.increment(count);
+    }
+
+    public void conflict() {
+        conflicts.increment();
+    }
+}
@@ -0,0 +1,33 @@
+package com.siemens.internship.service;
+
+/**
+ * The ways a processing run can update the items
+ */
+public enum ProcessingMode {
+    /**
+     * Loads every item, updates it in memory and saves it back - returns the processed items
+     */
+    ENTITY,
+
+    /**
+     * Updates the status with set-based UPDATE statements per id range - returns only the count
+     */
+    BULK,
+
+    /**
+     * Splits the id space into ranges on a fork-join pool, every range is loaded with one query
+     * and saved as one batch - returns only the count
+     */
+    RANGE,
+
+    /**
+     * Processes only the items changed since the previous incremental run - returns only the count
+     */
+    INCREMENTAL,
+
+    /**
+     * Splits the id space into shards shared with the other nodes on the same database, this node processes
+     * the shards it claims - returns only the count processed by this node
+     */
+    SHARDED
+}
@@ -0,0 +1,24 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ClusterProcessingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * The name of this application node, under which it holds its leases on shards and jobs.
+ */
+@Component
+public class ProcessingNode {
+    private final String id;
+
+    public ProcessingNode(ClusterProcessingProperties clusterProperties) {
+        this.id = clusterProperties.getNodeId() == null || clusterProperties.getNodeId().isBlank()
+                ? "node-" + UUID.randomUUID()
+                : clusterProperties.getNodeId();
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,10 @@
+package com.siemens.internship.service;
+
+/**
+ * Thrown when a processing run cannot start because the maximum number of concurrent runs is reached
+ */
+public class ProcessingRejectedException extends RuntimeException {
+    public ProcessingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,59 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ItemProcessingProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits the number of processing runs executing at the same time, so concurrent runs
+ * do not compete for the executor and the connection pool without bound.
+ */
+@Component
+public class ProcessingRunLimiter {
+    private final Semaphore runs;
+    private final int maxConcurrentRuns;
+
+    public ProcessingRunLimiter(ItemProcessingProperties processingProperties) {
+        this.maxConcurrentRuns = processingProperties.getMaxConcurrentRuns();
+        this.runs = new Semaphore(maxConcurrentRuns);
+    }
+
+    /**
+     * Starts a run without waiting.
+     * @return the run, to be closed once it is finished
+     * @throws ProcessingRejectedException if the maximum number of runs is already executing
+     */
+    public Run start() {
+        if (!runs.tryAcquire()) {
+            throw new ProcessingRejectedException(
+                    "Already " + maxConcurrentRuns + " processing runs in progress, try again later");
+        }
+        return new Run();
+    }
+
+    /**
+     * Starts a run as soon as one is free, waiting at most the given time.
+     * @return the run, to be closed once it is finished, or null if no run was free in time
+     */
+    public Run tryStart(Duration timeout) throws InterruptedException {
+        return runs.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS) ? new Run() : null;
+    }
+
+    public final class Run implements AutoCloseable {
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Run() {
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                runs.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.siemens.internship.service;
+
+/**
+ * Outcome of processing the chunks which follow a checkpoint
+ * @param lastId the highest id of the step, every item up to it is processed
+ * @param processedCount the number of processed items
+ */
+public record ProcessingStep(Long lastId, long processedCount) {
+}
@@ -0,0 +1,147 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ItemProcessingProperties;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ProcessingMetrics.Phase;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processes an id range by splitting it in halves on a fork-join pool until the ranges are small enough,
+ * then loads, updates and saves every range with one query and one JDBC batch.
+ * Idle workers steal the pending halves, so uneven ranges (gaps in the ids) still keep every worker busy.
+ */
+@Component
+public class RangeProcessor {
+    private static final Logger log = LoggerFactory.getLogger(RangeProcessor.class);
+
+    // ranges per worker - enough for work stealing to even out sparse ranges, few enough to keep the queries large
+    private static final int RANGES_PER_WORKER = 4;
+
+    @Autowired
+    private ItemProcessingProperties processingProperties;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ConflictRetry conflictRetry;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private ProcessingMetrics processingMetrics;
+    @Autowired
+    private ItemChangeOutbox changeOutbox;
+    @Autowired
+    private ProcessingExecutor processingExecutor;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void start() {
+        // every worker holds a connection while it works on a range, so the pool is not sized by the cores alone
+        pool = new ForkJoinPool(processingProperties.getParallelism());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        pool.shutdown();
+        if (!pool.awaitTermination(processingProperties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Range processing pool did not finish within {}, interrupting", processingProperties.getShutdownTimeout());
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Processes every item with an id in the given range.
+     * @param fromId the first id, inclusive
+     * @param toId the last id, inclusive
+     * @return the number of processed items
+     */
+    public CompletableFuture<Long> process(long fromId, long toId) {
+        long leafSize = leafSize(toId - fromId + 1);
+        return CompletableFuture.supplyAsync(() -> new RangeTask(fromId, toId, leafSize).invoke(), pool);
+    }
+
+    // the range is split into a few ranges per worker, but never into ranges larger than a chunk
+    private long leafSize(long span) {
+        long perWorker = span / ((long) pool.getParallelism() * RANGES_PER_WORKER);
+        return Math.max(1, Math.min(perWorker, processingProperties.getChunkSize()));
+    }
+
+    private long processLeaf(long fromId, long toId) {
+        // every id of the range counts as failed until the range is loaded, then the loaded items
+        AtomicLong itemCount = new AtomicLong(toId - fromId + 1);
+        try {
+            // the workers take the database permits of the processing executor, so runs of all modes
+            // together never hold more connections than max-db-concurrency
+            List<Item> processedItems = processingExecutor.withDbPermit(() ->
+                    conflictRetry.execute(() -> transactionTemplate.execute(status -> {
+                        List<Item> items = processingMetrics.record(Phase.LOAD, () ->
+                                itemRepository.findByIdBetweenOrderByIdAsc(fromId, toId));
+                        itemCount.set(items.size());
+                        // only the items whose status changes are written, and only those get a change
+                        List<Long> changedIds = items.stream()
+                                .filter(item -> !"PROCESSED".equals(item.getStatus()))
+                                .map(Item::getId)
+                                .toList();
+                        items.forEach(item -> item.setStatus("PROCESSED"));
+                        return processingMetrics.record(Phase.SAVE, () -> {
+                            List<Item> saved = itemRepository.saveAll(items);
+                            itemRepository.flush();
+                            changeOutbox.recordProcessed(changedIds);
+                            return saved;
+                        });
+                    })));
+            // evicted like the chunks of ItemService, a put could overwrite a newer version
+            Cache cache = cacheManager.getCache(ItemService.ITEMS_CACHE);
+            processedItems.forEach(item -> cache.evict(item.getId()));
+            processingMetrics.processed(processedItems.size());
+            return processedItems.size();
+        } catch (Exception e) {
+            processingMetrics.failed(itemCount.get());
+            throw new RuntimeException(
+                    "Failed to process items with IDs from " + fromId + " to " + toId, e);
+        }
+    }
+
+    private class RangeTask extends RecursiveTask<Long> {
+        private final long fromId;
+        private final long toId;
+        private final long leafSize;
+
+        RangeTask(long fromId, long toId, long leafSize) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected Long compute() {
+            if (toId - fromId + 1 <= leafSize) {
+                return processLeaf(fromId, toId);
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            RangeTask lower = new RangeTask(fromId, middle, leafSize);
+            lower.fork();
+            // the upper half runs on this worker, the lower one on this worker too unless it was stolen
+            long upperCount = new RangeTask(middle + 1, toId, leafSize).compute();
+            return lower.join() + upperCount;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.ClusterProcessingProperties;
+import com.siemens.internship.config.ItemProcessingProperties;
+import com.siemens.internship.model.ProcessingShard;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingShardRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares a processing run between all the nodes on the same database. The run splits the id space
+ * into shards (id ranges) stored in the processing_shard table; every node claims shards through
+ * a lease, processes only those and renews the lease after every step. The shard of a node which stopped
+ * renewing is taken over from its checkpoint once the lease has expired, so no shard is lost.
+ * Processing is at least once: the steps commit their items before the checkpoint, so the step of a node
+ * which lost its lease may be repeated by the new owner - harmless, as marking an item processed is idempotent.
+ */
+@Service
+public class ShardedProcessingService {
+    private static final Logger log = LoggerFactory.getLogger(ShardedProcessingService.class);
+
+    @Autowired
+    private ProcessingShardRepository shardRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private RangeProcessor rangeProcessor;
+    @Autowired
+    private ProcessingRunLimiter runLimiter;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ItemProcessingProperties processingProperties;
+    @Autowired
+    private ClusterProcessingProperties clusterProperties;
+    @Autowired
+    private ProcessingNode node;
+
+    private String nodeId;
+    private ScheduledExecutorService poller;
+
+    @PostConstruct
+    void start() {
+        nodeId = node.getId();
+        // only enabled nodes join the runs started elsewhere, the others only work on the runs they start
+        if (clusterProperties.isEnabled()) {
+            long pollMillis = clusterProperties.getPollInterval().toMillis();
+            poller = Executors.newSingleThreadScheduledExecutor();
+            poller.scheduleWithFixedDelay(this::pollShards, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        // the leases of an interrupted node expire and its shards are continued by the other nodes
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts a sharded run unless one is in progress, then processes shards on this node until none is left to claim.
+     * @return the number of items processed by this node
+     */
+    @Async
+    public CompletableFuture<Long> processShardsAsync() {
+        ProcessingRunLimiter.Run run = runLimiter.start();
+        try (run) {
+            planShards();
+            return CompletableFuture.completedFuture(processShards(nodeId));
+        }
+    }
+
+    /**
+     * Splits the current id space into shards, unless the shards of a run are still unfinished.
+     * When several nodes start a run at the same time only one plan is stored.
+     */
+    public void planShards() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (shardRepository.countByCompletedAtIsNull() > 0) {
+                    return;
+                }
+                shardRepository.deleteAllInBatch();
+                Long minId = itemRepository.findMinId();
+                Long maxId = itemRepository.findMaxId();
+                if (minId == null) {
+                    return;
+                }
+                int shardCount = clusterProperties.getShardCount();
+                long width = Math.max(1, (maxId - minId + shardCount) / shardCount);
+                List<ProcessingShard> shards = new ArrayList<>();
+                for (long fromId = minId; fromId <= maxId; fromId += width) {
+                    shards.add(new ProcessingShard(shards.size(), fromId, Math.min(fromId + width - 1, maxId)));
+                }
+                shardRepository.saveAll(shards);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Shards were planned by another node at the same time", e);
+        }
+    }
+
+    /**
+     * Claims and processes shards under the given owner until every shard is done or owned by a live node.
+     * @param owner the name of the lease holder
+     * @return the number of processed items
+     */
+    public long processShards(String owner) {
+        long processedCount = 0;
+        Integer shardId;
+        while ((shardId = claimNextShard(owner)) != null) {
+            processedCount += processShard(shardId, owner);
+        }
+        return processedCount;
+    }
+
+    // several nodes may see the same claimable shard, the conditional update lets exactly one of them win
+    private Integer claimNextShard(String owner) {
+        Instant now = Instant.now();
+        for (Integer shardId : shardRepository.findClaimableIds(now)) {
+            Integer claimed = transactionTemplate.execute(status ->
+                    shardRepository.claim(shardId, owner, now, leaseUntil()));
+            if (claimed != null && claimed == 1) {
+                return shardId;
+            }
+        }
+        return null;
+    }
+
+    // the shard is processed step by step from its checkpoint, every step renews the lease;
+    // a step finished after the lease expired is not checkpointed and is processed again by the new owner
+    private long processShard(Integer shardId, String owner) {
+        ProcessingShard shard = shardRepository.findById(shardId).orElseThrow();
+        long step = (long) processingProperties.getChunkSize() * processingProperties.getParallelism();
+        long fromId = shard.getLastProcessedId() == null ? shard.getFromId() : shard.getLastProcessedId() + 1;
+        long processedCount = 0;
+        while (fromId <= shard.getToId()) {
+            long toId = Math.min(fromId + step - 1, shard.getToId());
+            processedCount += rangeProcessor.process(fromId, toId).join();
+            if (!renew(shardId, owner, toId)) {
+                log.warn("Lease of shard {} expired while {} was processing it, leaving it to the new owner", shardId, owner);
+                return processedCount;
+            }
+            fromId = toId + 1;
+        }
+        transactionTemplate.execute(status -> shardRepository.complete(shardId, owner, Instant.now()));
+        return processedCount;
+    }
+
+    private boolean renew(Integer shardId, String owner, long lastProcessedId) {
+        Integer renewed = transactionTemplate.execute(status ->
+                shardRepository.renew(shardId, owner, lastProcessedId, leaseUntil()));
+        return renewed != null && renewed == 1;
+    }
+
+    private Instant leaseUntil() {
+        return Instant.now().plus(clusterProperties.getLeaseDuration());
+    }
+
+    private void pollShards() {
+        try (ProcessingRunLimiter.Run run = runLimiter.start()) {
+            long processedCount = processShards(nodeId);
+            if (processedCount > 0) {
+                log.info("Node {} processed {} items of a sharded run", nodeId, processedCount);
+            }
+        } catch (ProcessingRejectedException e) {
+            log.debug("Skipping the shard poll, the processing runs of this node are busy");
+        } catch (RuntimeException e) {
+            log.warn("Shard poll failed, the claimed shard is retried once its lease expires", e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.siemens.internship.validator;
+
+/**
+ * Single-pass email syntax check with the same grammar as {@link EmailValidator#EMAIL_REGEX}.
+ * Every separator can only be followed by an alphanumeric, so the grammar never needs to backtrack:
+ * each character is looked at once, nothing is allocated and the time is linear in the input length.
+ */
+public final class EmailSyntax {
+    /**
+     * Longest address accepted, as limited by RFC 5321 - longer inputs are rejected before scanning
+     */
+    public static final int MAX_LENGTH = 254;
+
+    private EmailSyntax() {
+    }
+
+    /**
+     * Checks if the given text is an email address.
+     * @param email the text, may be null
+     * @return true if valid, otherwise false
+     */
+    public static boolean isValid(CharSequence email) {
+        if (email == null || email.length() == 0 || email.length() > MAX_LENGTH) {
+            return false;
+        }
+        int length = email.length();
+
+        // local part: [A-Za-z0-9]+(?:[._%+-][A-Za-z0-9]+)*
+        int i = skipAlphanumerics(email, 0);
+        if (i == 0) {
+            return false;
+        }
+        while (i < length && isLocalSeparator(email.charAt(i))) {
+            int next = skipAlphanumerics(email, i + 1);
+            if (next == i + 1) {
+                return false;
+            }
+            i = next;
+        }
+
+        // exactly one '@'
+        if (i == length || email.charAt(i) != '@') {
+            return false;
+        }
+        int domainStart = i + 1;
+
+        // first domain label: [A-Za-z0-9]+(?:-[A-Za-z0-9]+)*
+        i = skipAlphanumerics(email, domainStart);
+        if (i == domainStart) {
+            return false;
+        }
+        while (i < length && email.charAt(i) == '-') {
+            int next = skipAlphanumerics(email, i + 1);
+            if (next == i + 1) {
+                return false;
+            }
+            i = next;
+        }
+
+        // at least one extension: (?:\.[A-Za-z]{2,})+
+        if (i == length) {
+            return false;
+        }
+        while (i < length) {
+            if (email.charAt(i) != '.') {
+                return false;
+            }
+            int next = skipLetters(email, i + 1);
+            if (next - (i + 1) < 2) {
+                return false;
+            }
+            i = next;
+        }
+        return true;
+    }
+
+    private static int skipAlphanumerics(CharSequence text, int from) {
+        int i = from;
+        while (i < text.length() && isAlphanumeric(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipLetters(CharSequence text, int from) {
+        int i = from;
+        while (i < text.length() && isLetter(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isLocalSeparator(char c) {
+        return c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+}
@@ -1,18 +1,83 @@
 package com.siemens.internship;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.model.ChangeType;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChange;
+import com.siemens.internship.model.ProcessingShard;
+import com.siemens.internship.repository.ItemChangeRepository;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingShardRepository;
+import com.siemens.internship.model.JobState;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.service.ItemChangeOutbox;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingRunLimiter;
+import com.siemens.internship.service.ShardedProcessingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class InternshipApplicationTests {
+	private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT =
+			new ParameterizedTypeReference<>() {
+			};
+	private static final ParameterizedTypeReference<List<Map<String, Object>>> JSON_OBJECTS =
+			new ParameterizedTypeReference<>() {
+			};
+	private static final TypeReference<List<Map<String, Object>>> ERROR_LIST = new TypeReference<>() {
+	};
+
 	@Autowired
 	private TestRestTemplate restTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private CacheManager cacheManager;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	private ProcessingRunLimiter runLimiter;
+	@Autowired
+	private ShardedProcessingService shardedProcessingService;
+	@Autowired
+	private ProcessingShardRepository shardRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private ItemChangeRepository changeRepository;
+	@Autowired
+	private ItemChangeOutbox changeOutbox;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
 
 	@Test
 	void contextLoads() {
@@ -463,6 +528,112 @@ class InternshipApplicationTests {
 		assertThat(putResponse.getBody().getDescription()).isEqualTo("Updated Desc");
 		assertThat(putResponse.getBody().getStatus()).isEqualTo("Updated Status");
 		assertThat(putResponse.getBody().getEmail()).isEqualTo("updated@updated.com");
+
+		// an unconditional update still answers with the stored version and change time
+		ResponseEntity<Item> getResponse = restTemplate.getForEntity("/api/items/" + id, Item.class);
+		assertThat(putResponse.getBody().getVersion()).isEqualTo(postResponse.getBody().getVersion() + 1);
+		assertThat(putResponse.getBody().getVersion()).isEqualTo(getResponse.getBody().getVersion());
+		assertThat(putResponse.getHeaders().getETag()).isEqualTo(getResponse.getHeaders().getETag());
+		// read-only on deserialization, so only visible in the raw body
+		ResponseEntity<Map<String, Object>> repeatedResponse = restTemplate.exchange(
+				"/api/items/" + id, HttpMethod.PUT, request, JSON_OBJECT);
+		assertThat(repeatedResponse.getBody().get("updatedAt")).isNotNull();
+		assertThat(repeatedResponse.getHeaders().getETag()).isNotNull();
+	}
+
+	@Test
+	void updateItem_conditionalOnETag() {
+		Item original = new Item(
+				null,
+				"Valid Item",
+				"Desc",
+				"Status",
+				"test@test.com");
+		Long id = restTemplate.postForEntity("/api/items", original, Item.class).getBody().getId();
+		String eTag = restTemplate.getForEntity("/api/items/" + id, Item.class).getHeaders().getETag();
+		assertThat(eTag).isNotNull();
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setIfMatch(eTag);
+		Item first = new Item(null, "First", "Desc", "Status", "test@test.com");
+		ResponseEntity<Item> firstResponse = restTemplate.exchange(
+				"/api/items/" + id, HttpMethod.PUT, new HttpEntity<>(first, headers), Item.class);
+		assertThat(firstResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(firstResponse.getHeaders().getETag()).isNotEqualTo(eTag);
+
+		// the second writer read the same version, its update would overwrite the first one
+		Item second = new Item(null, "Second", "Desc", "Status", "test@test.com");
+		ResponseEntity<Item> secondResponse = restTemplate.exchange(
+				"/api/items/" + id, HttpMethod.PUT, new HttpEntity<>(second, headers), Item.class);
+		assertThat(secondResponse.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+		assertThat(restTemplate.getForEntity("/api/items/" + id, Item.class).getBody().getName()).isEqualTo("First");
+	}
+
+	@Test
+	void updateItem_rejectedAfterProcessingChangedTheItem() {
+		Item original = new Item(
+				null,
+				"Valid Item",
+				"Desc",
+				"Status",
+				"test@test.com");
+		Item created = restTemplate.postForEntity("/api/items", original, Item.class).getBody();
+
+		restTemplate.exchange("/api/items/process?mode=BULK", HttpMethod.GET, null, JSON_OBJECT);
+
+		Item stale = new Item(created.getId(), "Stale", "Desc", "NEW", "test@test.com");
+		stale.setVersion(created.getVersion());
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		ResponseEntity<Item> response = restTemplate.exchange(
+				"/api/items/" + created.getId(), HttpMethod.PUT, new HttpEntity<>(stale, headers), Item.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+	}
+
+	@Test
+	void patchItem_changesOnlyGivenFields() {
+		Item original = new Item(
+				null,
+				"Valid Item",
+				"Desc",
+				"Status",
+				"test@test.com");
+		Long id = restTemplate.postForEntity("/api/items", original, Item.class).getBody().getId();
+		String eTag = restTemplate.getForEntity("/api/items/" + id, Item.class).getHeaders().getETag();
+		// the default JDK URL connection cannot send PATCH
+		TestRestTemplate patchTemplate = new TestRestTemplate(new RestTemplateBuilder()
+				.rootUri(restTemplate.getRootUri())
+				.requestFactory(JdkClientHttpRequestFactory.class));
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setIfMatch(eTag);
+		ResponseEntity<Void> response = patchTemplate.exchange("/api/items/" + id, HttpMethod.PATCH,
+				new HttpEntity<>("{\"status\": \"PATCHED\"}", headers), Void.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+		ResponseEntity<Item> getResponse = restTemplate.getForEntity("/api/items/" + id, Item.class);
+		assertThat(response.getHeaders().getETag()).isEqualTo(getResponse.getHeaders().getETag());
+		assertThat(getResponse.getBody().getStatus()).isEqualTo("PATCHED");
+		assertThat(getResponse.getBody().getName()).isEqualTo("Valid Item");
+		assertThat(getResponse.getBody().getEmail()).isEqualTo("test@test.com");
+
+		ResponseEntity<String> stale = patchTemplate.exchange("/api/items/" + id, HttpMethod.PATCH,
+				new HttpEntity<>("{\"status\": \"AGAIN\"}", headers), String.class);
+		assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+		HttpHeaders unconditional = new HttpHeaders();
+		unconditional.setContentType(MediaType.APPLICATION_JSON);
+		ResponseEntity<Map<String, Object>> invalid = patchTemplate.exchange("/api/items/" + id, HttpMethod.PATCH,
+				new HttpEntity<>("{\"email\": \"not-an-email\"}", unconditional), JSON_OBJECT);
+		assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(invalid.getBody()).containsKey("email");
+
+		ResponseEntity<String> missing = patchTemplate.exchange("/api/items/999999", HttpMethod.PATCH,
+				new HttpEntity<>("{\"status\": \"PATCHED\"}", unconditional), String.class);
+		assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
 	}
 
 	@Test
@@ -543,4 +714,686 @@ class InternshipApplicationTests {
 			assertThat(item.getStatus()).isEqualTo("PROCESSED");
 		}
 	}
+
+	@Test
+	void processItems_bulkMode() {
+		Item item = new Item(
+				null,
+				"Item",
+				"Desc",
+				"Status",
+				"item@test.com");
+		ResponseEntity<Item> createResponse = restTemplate.postForEntity("/api/items", item, Item.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+		ResponseEntity<Map<String, Object>> processResponse = restTemplate.exchange(
+				"/api/items/process?mode=BULK", HttpMethod.GET, null, JSON_OBJECT);
+
+		assertThat(processResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(processResponse.getBody()).isNotNull();
+		assertThat(((Number) processResponse.getBody().get("processed")).longValue()).isGreaterThanOrEqualTo(1);
+
+		ResponseEntity<Item> getResponse = restTemplate.getForEntity(
+				"/api/items/" + createResponse.getBody().getId(), Item.class);
+		assertThat(getResponse.getBody().getStatus()).isEqualTo("PROCESSED");
+
+		// the processed items are not written again, so their ETags stay valid
+		ResponseEntity<Map<String, Object>> repeatedResponse = restTemplate.exchange(
+				"/api/items/process?mode=BULK", HttpMethod.GET, null, JSON_OBJECT);
+		assertThat(((Number) repeatedResponse.getBody().get("processed")).longValue()).isZero();
+		assertThat(restTemplate.getForEntity("/api/items/" + createResponse.getBody().getId(), Item.class)
+				.getHeaders().getETag()).isEqualTo(getResponse.getHeaders().getETag());
+	}
+
+	@Test
+	void processItems_rangeMode() {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			Item item = new Item(
+					null,
+					"Item " + i,
+					"Desc",
+					"Status",
+					"item" + i + "@test.com");
+			ResponseEntity<Item> createResponse = restTemplate.postForEntity("/api/items", item, Item.class);
+			assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+			ids.add(createResponse.getBody().getId());
+		}
+
+		ResponseEntity<Map<String, Object>> processResponse = restTemplate.exchange(
+				"/api/items/process?mode=RANGE", HttpMethod.GET, null, JSON_OBJECT);
+
+		assertThat(processResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(processResponse.getBody()).isNotNull();
+		assertThat(((Number) processResponse.getBody().get("processed")).longValue()).isGreaterThanOrEqualTo(ids.size());
+		for (Long id : ids) {
+			ResponseEntity<Item> getResponse = restTemplate.getForEntity("/api/items/" + id, Item.class);
+			assertThat(getResponse.getBody().getStatus()).isEqualTo("PROCESSED");
+		}
+	}
+
+	@Test
+	void processItems_incrementalModeOnlyProcessesChanges() {
+		Item item = new Item(
+				null,
+				"Item",
+				"Desc",
+				"Status",
+				"item@test.com");
+		ResponseEntity<Item> createResponse = restTemplate.postForEntity("/api/items", item, Item.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		Long id = createResponse.getBody().getId();
+
+		ResponseEntity<Map<String, Object>> firstRun = restTemplate.exchange(
+				"/api/items/process?mode=INCREMENTAL", HttpMethod.GET, null, JSON_OBJECT);
+		assertThat(firstRun.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(((Number) firstRun.getBody().get("processed")).longValue()).isGreaterThanOrEqualTo(1);
+
+		// nothing changed since, so the next run has nothing to do
+		ResponseEntity<Map<String, Object>> secondRun = restTemplate.exchange(
+				"/api/items/process?mode=INCREMENTAL", HttpMethod.GET, null, JSON_OBJECT);
+		assertThat(((Number) secondRun.getBody().get("processed")).longValue()).isZero();
+
+		Item changed = new Item(id, "Item", "Changed", "NEW", "item@test.com");
+		restTemplate.put("/api/items/" + id, changed);
+
+		ResponseEntity<Map<String, Object>> thirdRun = restTemplate.exchange(
+				"/api/items/process?mode=INCREMENTAL", HttpMethod.GET, null, JSON_OBJECT);
+		assertThat(((Number) thirdRun.getBody().get("processed")).longValue()).isEqualTo(1);
+		assertThat(restTemplate.getForEntity("/api/items/" + id, Item.class).getBody().getStatus())
+				.isEqualTo("PROCESSED");
+	}
+
+	@Test
+	void processItems_incrementalModePagesThroughEqualTimestamps() {
+		// saved in batches, so many of them share an updatedAt across the chunk boundaries
+		List<Long> ids = itemRepository.saveAll(IntStream.range(0, 1200)
+						.mapToObj(i -> new Item(null, "Item " + i, "Desc", "NEW", "item@test.com"))
+						.toList())
+				.stream()
+				.map(Item::getId)
+				.toList();
+
+		ResponseEntity<Map<String, Object>> run = restTemplate.exchange(
+				"/api/items/process?mode=INCREMENTAL", HttpMethod.GET, null, JSON_OBJECT);
+
+		assertThat(run.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(((Number) run.getBody().get("processed")).longValue()).isGreaterThanOrEqualTo(ids.size());
+		assertThat(itemRepository.findAllById(ids)).hasSize(ids.size())
+				.allSatisfy(item -> assertThat(item.getStatus()).isEqualTo("PROCESSED"));
+	}
+
+	@Test
+	void getItems_filteredByStatusAndEmail() {
+		String email = "filter-" + System.nanoTime() + "@test.com";
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Item item = new Item(
+					null,
+					"Item " + i,
+					"Desc",
+					i % 2 == 0 ? "FILTER_A" : "FILTER_B",
+					email);
+			ids.add(restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId());
+		}
+
+		ResponseEntity<Item[]> byEmail = restTemplate.getForEntity("/api/items?email=" + email, Item[].class);
+		assertThat(byEmail.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(byEmail.getBody()).extracting(Item::getId).containsExactlyElementsOf(ids);
+
+		ResponseEntity<Item[]> byStatusAndEmail = restTemplate.getForEntity(
+				"/api/items?status=FILTER_A&email=" + email, Item[].class);
+		assertThat(byStatusAndEmail.getBody()).extracting(Item::getId)
+				.containsExactly(ids.get(0), ids.get(2), ids.get(4));
+
+		// keyset paging over the filtered items
+		ResponseEntity<Item[]> secondPage = restTemplate.getForEntity(
+				"/api/items?status=FILTER_A&limit=2&afterId=" + ids.get(0), Item[].class);
+		assertThat(secondPage.getBody()).extracting(Item::getId).containsExactly(ids.get(2), ids.get(4));
+	}
+
+	@Test
+	void getItems_selectedFields() {
+		Item item = new Item(
+				null,
+				"Item",
+				"Desc",
+				"Status",
+				"fields@test.com");
+		Long id = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+
+		ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+				"/api/items?fields=id,status&email=fields@test.com", HttpMethod.GET, null, JSON_OBJECTS);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).hasSize(1);
+		Map<String, Object> row = response.getBody().get(0);
+		assertThat(row.keySet()).containsExactly("id", "status");
+		assertThat(((Number) row.get("id")).longValue()).isEqualTo(id);
+		assertThat(row.get("status")).isEqualTo("Status");
+
+		assertThat(restTemplate.getForEntity("/api/items?fields=id,secret", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void processItems_shardsSharedBetweenNodes() {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Item item = new Item(
+					null,
+					"Item " + i,
+					"Desc",
+					"NEW",
+					"item" + i + "@test.com");
+			ids.add(restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId());
+		}
+		long itemCount = itemRepository.count();
+		shardedProcessingService.planShards();
+
+		// one node died while holding a shard, another one still holds its lease
+		List<ProcessingShard> shards = shardRepository.findAll(Sort.by("id"));
+		assertThat(shards).hasSizeGreaterThan(2);
+		ProcessingShard abandoned = shards.get(0);
+		abandoned.setOwner("dead-node");
+		abandoned.setLeaseUntil(Instant.now().minusSeconds(1));
+		ProcessingShard leased = shards.get(1);
+		leased.setOwner("live-node");
+		leased.setLeaseUntil(Instant.now().plusSeconds(60));
+		shardRepository.saveAll(List.of(abandoned, leased));
+
+		CompletableFuture<Long> nodeA = CompletableFuture.supplyAsync(() -> shardedProcessingService.processShards("node-a"));
+		CompletableFuture<Long> nodeB = CompletableFuture.supplyAsync(() -> shardedProcessingService.processShards("node-b"));
+		long processed = nodeA.join() + nodeB.join();
+
+		// the expired lease was taken over, the live one was left alone
+		assertThat(shardRepository.countByCompletedAtIsNull()).isEqualTo(1);
+		assertThat(shardRepository.findById(leased.getId()).orElseThrow().getOwner()).isEqualTo("live-node");
+
+		leased.setLeaseUntil(Instant.now().minusSeconds(1));
+		shardRepository.save(leased);
+		processed += shardedProcessingService.processShards("node-a");
+
+		// every item was processed by exactly one node
+		assertThat(processed).isEqualTo(itemCount);
+		assertThat(shardRepository.countByCompletedAtIsNull()).isZero();
+		for (Long id : ids) {
+			assertThat(restTemplate.getForEntity("/api/items/" + id, Item.class).getBody().getStatus())
+					.isEqualTo("PROCESSED");
+		}
+	}
+
+	@Test
+	void processItems_streamingNdjson() throws Exception {
+		Item item = new Item(
+				null,
+				"Item",
+				"Desc",
+				"Status",
+				"item@test.com");
+		ResponseEntity<Item> createResponse = restTemplate.postForEntity("/api/items", item, Item.class);
+		assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+		ResponseEntity<String> processResponse = restTemplate.exchange(
+				"/api/items/process", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+		assertThat(processResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(processResponse.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+		assertThat(processResponse.getBody()).isNotNull();
+
+		String[] lines = processResponse.getBody().split("\n");
+		assertThat(lines.length).isGreaterThanOrEqualTo(1);
+		for (String line : lines) {
+			assertThat(objectMapper.readValue(line, Item.class).getStatus()).isEqualTo("PROCESSED");
+		}
+	}
+
+	@Test
+	void getAllItems_keysetPagination() {
+		Long[] ids = new Long[3];
+		for (int i = 0; i < ids.length; i++) {
+			Item item = new Item(
+					null,
+					"Item " + i,
+					"Desc",
+					"Status",
+					"item@test.com");
+			ids[i] = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+		}
+
+		ResponseEntity<Item[]> firstPage = restTemplate.getForEntity(
+				"/api/items?afterId=" + (ids[0] - 1) + "&limit=2", Item[].class);
+
+		assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(firstPage.getBody()).extracting(Item::getId).containsExactly(ids[0], ids[1]);
+
+		ResponseEntity<Item[]> secondPage = restTemplate.getForEntity(
+				"/api/items?afterId=" + ids[1] + "&limit=2", Item[].class);
+
+		assertThat(secondPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(secondPage.getBody()[0].getId()).isEqualTo(ids[2]);
+	}
+
+	@Test
+	void getAllItems_invalidLimit() {
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/items?limit=0", String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void getAllItems_streamingNdjson() throws Exception {
+		Item item = new Item(
+				null,
+				"Item",
+				"Desc",
+				"Status",
+				"item@test.com");
+		Long id = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+		ResponseEntity<String> response = restTemplate.exchange(
+				"/api/items", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		List<Long> streamedIds = new ArrayList<>();
+		for (String line : response.getBody().split("\n")) {
+			streamedIds.add(objectMapper.readValue(line, Item.class).getId());
+		}
+		assertThat(streamedIds).contains(id).isSorted();
+	}
+
+	@Test
+	void processingJob_runsToCompletion() throws Exception {
+		Item item = new Item(
+				null,
+				"Item",
+				"Desc",
+				"Status",
+				"item@test.com");
+		Long itemId = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+
+		ResponseEntity<ProcessingJob> startResponse = restTemplate.postForEntity(
+				"/api/items/process-jobs", null, ProcessingJob.class);
+
+		assertThat(startResponse.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(startResponse.getHeaders().getLocation()).isNotNull();
+		Long jobId = startResponse.getBody().getId();
+
+		ProcessingJob job = startResponse.getBody();
+		for (int i = 0; i < 100 && !job.getState().isFinished(); i++) {
+			Thread.sleep(100);
+			job = restTemplate.getForEntity("/api/items/process-jobs/" + jobId, ProcessingJob.class).getBody();
+		}
+
+		assertThat(job.getState()).isEqualTo(JobState.COMPLETED);
+		assertThat(job.getProcessedCount()).isGreaterThanOrEqualTo(1);
+		assertThat(job.getLastProcessedId()).isGreaterThanOrEqualTo(itemId);
+		assertThat(restTemplate.getForEntity("/api/items/" + itemId, Item.class).getBody().getStatus())
+				.isEqualTo("PROCESSED");
+
+		ResponseEntity<String> cancelResponse = restTemplate.exchange(
+				"/api/items/process-jobs/" + jobId, HttpMethod.DELETE, null, String.class);
+		assertThat(cancelResponse.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+	}
+
+	@Test
+	void processingJob_notFound() {
+		ResponseEntity<ProcessingJob> getResponse = restTemplate.getForEntity(
+				"/api/items/process-jobs/9999", ProcessingJob.class);
+		assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+		ResponseEntity<Void> cancelResponse = restTemplate.exchange(
+				"/api/items/process-jobs/9999", HttpMethod.DELETE, null, Void.class);
+		assertThat(cancelResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	void itemCache_readThroughAndEviction() {
+		Item item = new Item(
+				null,
+				"Cached Item",
+				"Desc",
+				"Status",
+				"test@test.com");
+		Long id = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+		Cache cache = cacheManager.getCache(ItemService.ITEMS_CACHE);
+		cache.evict(id);
+
+		restTemplate.getForEntity("/api/items/" + id, Item.class);
+		assertThat(cache.get(id, Item.class)).isNotNull();
+
+		restTemplate.exchange("/api/items/" + id, HttpMethod.DELETE, null, Void.class);
+		assertThat(cache.get(id)).isNull();
+		assertThat(restTemplate.getForEntity("/api/items/" + id, Item.class).getStatusCode())
+				.isEqualTo(HttpStatus.NOT_FOUND);
+	}
+
+	@Test
+	void createItems_bulkJsonArray() {
+		List<Item> items = List.of(
+				new Item(null, "Item 1", "Desc", "NEW", "item1@test.com"),
+				new Item(null, "Item 2", "Desc", "NEW", "bad-email"),
+				new Item(null, "", "Desc", "NEW", "item3@test.com"),
+				new Item(null, "Item 4", "Desc", "NEW", "item4@test.com"));
+
+		ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+				"/api/items/bulk", HttpMethod.POST, new HttpEntity<>(items), JSON_OBJECT);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(((Number) response.getBody().get("saved")).intValue()).isEqualTo(2);
+		List<Map<String, Object>> errors = objectMapper.convertValue(response.getBody().get("errors"), ERROR_LIST);
+		assertThat(errors).hasSize(2);
+		assertThat(errors.get(0).get("index")).isEqualTo(1);
+		assertThat(errors.get(0).get("errors")).isEqualTo(Map.of("email", "Invalid email format"));
+		assertThat(errors.get(1).get("index")).isEqualTo(2);
+		assertThat(errors.get(1).get("errors")).isEqualTo(Map.of("name", "must not be empty"));
+	}
+
+	@Test
+	void createItems_bulkNdjson() throws Exception {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 1200; i++) {
+			body.append(objectMapper.writeValueAsString(
+					new Item(null, "Item " + i, "Desc", "NEW", "item@test.com"))).append('\n');
+		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+		ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+				"/api/items/bulk", HttpMethod.POST, new HttpEntity<>(body.toString(), headers), JSON_OBJECT);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(((Number) response.getBody().get("saved")).intValue()).isEqualTo(1200);
+		assertThat((List<?>) response.getBody().get("errors")).isEmpty();
+	}
+
+	@Test
+	void createItems_bulkStaleVersionReportedPerItem() {
+		Item created = restTemplate.postForEntity("/api/items",
+				new Item(null, "Item", "Desc", "NEW", "item@test.com"), Item.class).getBody();
+		Item stale = new Item(created.getId(), "Stale", "Desc", "STALE", "item@test.com");
+		stale.setVersion(created.getVersion() + 1);
+		List<Item> items = List.of(
+				new Item(null, "Item 1", "Desc", "NEW", "item1@test.com"),
+				stale,
+				new Item(null, "Item 3", "Desc", "NEW", "item3@test.com"));
+
+		ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+				"/api/items/bulk", HttpMethod.POST, new HttpEntity<>(items), JSON_OBJECT);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(((Number) response.getBody().get("saved")).intValue()).isEqualTo(2);
+		assertThat(((Number) response.getBody().get("rejected")).intValue()).isEqualTo(1);
+		List<Map<String, Object>> errors = objectMapper.convertValue(response.getBody().get("errors"), ERROR_LIST);
+		assertThat(errors).hasSize(1);
+		assertThat(errors.get(0).get("index")).isEqualTo(1);
+		assertThat(errors.get(0).get("errors")).asInstanceOf(InstanceOfAssertFactories.MAP).containsKey("version");
+		assertThat(restTemplate.getForEntity("/api/items/" + created.getId(), Item.class).getBody().getName())
+				.isEqualTo("Item");
+	}
+
+	@Test
+	void createItems_bulkAllInvalid() {
+		List<Item> items = List.of(new Item(null, "Item", "Desc", "NEW", "bad-email"));
+
+		ResponseEntity<String> response = restTemplate.postForEntity("/api/items/bulk", items, String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(response.getBody()).contains("Invalid email format");
+	}
+
+	@Test
+	void createItems_bulkMalformed() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		ResponseEntity<String> response = restTemplate.postForEntity(
+				"/api/items/bulk", new HttpEntity<>("[{\"name\": ", headers), String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void importItems_csv() {
+		String csv = "name,description,status,email\n"
+				+ "Imported 1,Desc,NEW,imported1@test.com\n"
+				+ "Imported 2,Desc,NEW,bad-email\n"
+				+ "Imported 3,\"Desc, quoted\",NEW,imported3@test.com\n";
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.parseMediaType("text/csv"));
+
+		ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+				"/api/items/import", HttpMethod.POST, new HttpEntity<>(csv, headers), JSON_OBJECT);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(((Number) response.getBody().get("saved")).intValue()).isEqualTo(2);
+		assertThat(((Number) response.getBody().get("rejected")).intValue()).isEqualTo(1);
+		assertThat(response.getBody().get("errors").toString()).contains("Invalid email format");
+	}
+
+	@Test
+	void importItems_malformedNdjson() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+		ResponseEntity<String> response = restTemplate.postForEntity(
+				"/api/items/import", new HttpEntity<>("{\"name\": \n", headers), String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(response.getBody()).contains("line 1");
+	}
+
+	@Test
+	void exportItems_csv() {
+		Item item = new Item(
+				null,
+				"Exported, Item",
+				"Desc",
+				"Status",
+				"exported@test.com");
+		Long id = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+
+		ResponseEntity<String> response = restTemplate.getForEntity("/api/items/export?format=CSV", String.class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getContentDisposition().getFilename()).isEqualTo("items.csv");
+		assertThat(response.getBody()).startsWith("id,name,description,status,email\n");
+		assertThat(response.getBody()).contains(id + ",\"Exported, Item\",Desc,Status,exported@test.com\n");
+	}
+
+	@Test
+	void exportItems_gzipNdjson() throws Exception {
+		Item item = new Item(
+				null,
+				"Exported Item",
+				"Desc",
+				"Status",
+				"exported@test.com");
+		Long id = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+
+		ResponseEntity<byte[]> response = restTemplate.getForEntity("/api/items/export?gzip=true", byte[].class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("application/gzip"));
+		String ndjson;
+		try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+			ndjson = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		List<Long> exportedIds = new ArrayList<>();
+		for (String line : ndjson.split("\n")) {
+			exportedIds.add(objectMapper.readValue(line, Item.class).getId());
+		}
+		assertThat(exportedIds).contains(id).isSorted();
+	}
+
+	@Test
+	void processItems_recordsMetrics() {
+		Item item = new Item(
+				null,
+				"Item",
+				"Desc",
+				"Status",
+				"item@test.com");
+		restTemplate.postForEntity("/api/items", item, Item.class);
+		double processedBefore = meterRegistry.get("items.processing.items").tag("outcome", "processed")
+				.counter().count();
+
+		restTemplate.getForEntity("/api/items/process", Item[].class);
+
+		assertThat(meterRegistry.get("items.processing.items").tag("outcome", "processed").counter().count())
+				.isGreaterThan(processedBefore);
+		for (String phase : List.of("id_fetch", "queue_wait", "load", "save")) {
+			assertThat(meterRegistry.get("items.processing.phase").tag("phase", phase).timer().count())
+					.as(phase)
+					.isPositive();
+		}
+		assertThat(meterRegistry.get("executor.completed").tag("name", "items.processing").functionCounter().count())
+				.isPositive();
+		assertThat(meterRegistry.find("hikaricp.connections.active").gauge()).isNotNull();
+		assertThat(meterRegistry.find("http.server.requests").tag("uri", "/api/items/process").timer()).isNotNull();
+	}
+
+	@Test
+	void processItems_tooManyConcurrentRuns() {
+		List<ProcessingRunLimiter.Run> runs = new ArrayList<>();
+		try {
+			runs.add(runLimiter.start());
+			runs.add(runLimiter.start());
+
+			ResponseEntity<String> response = restTemplate.getForEntity("/api/items/process", String.class);
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+			assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+			assertThat(response.getBody()).contains("\"error\"");
+
+			ResponseEntity<String> bulkResponse = restTemplate.getForEntity("/api/items/process?mode=BULK", String.class);
+			assertThat(bulkResponse.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+			assertThat(bulkResponse.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+
+			HttpHeaders headers = new HttpHeaders();
+			headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+			ResponseEntity<String> streamingResponse = restTemplate.exchange(
+					"/api/items/process", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+			assertThat(streamingResponse.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+			assertThat(streamingResponse.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+		} finally {
+			runs.forEach(ProcessingRunLimiter.Run::close);
+		}
+
+		assertThat(restTemplate.getForEntity("/api/items/process", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.OK);
+	}
+
+	@Test
+	void itemChanges_recordedForEveryWrite() {
+		long since = lastPosition();
+		Item item = new Item(
+				null,
+				"Changed Item",
+				"Desc",
+				"Status",
+				"test@test.com");
+		Long changedId = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+		item.setStatus("UPDATED");
+		restTemplate.put("/api/items/" + changedId, item);
+		restTemplate.delete("/api/items/" + changedId);
+		Long processedId = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+		restTemplate.getForEntity("/api/items/process", Item[].class);
+		// nothing changes on a second run, so it records no change
+		restTemplate.getForEntity("/api/items/process", Item[].class);
+		restTemplate.getForEntity("/api/items/process?mode=RANGE", String.class);
+
+		List<ItemChange> changes = new ArrayList<>();
+		for (List<ItemChange> page = changesAfter(since); !page.isEmpty(); page = changesAfter(since)) {
+			changes.addAll(page);
+			since = page.get(page.size() - 1).getPosition();
+		}
+
+		assertThat(changes).extracting(ItemChange::getPosition).isSorted();
+		assertThat(changes.stream().filter(change -> change.getItemId().equals(changedId)))
+				.extracting(ItemChange::getType, ItemChange::getStatus)
+				.containsExactly(
+						tuple(ChangeType.CREATED, "Status"),
+						tuple(ChangeType.UPDATED, "UPDATED"),
+						tuple(ChangeType.DELETED, null));
+		assertThat(changes.stream().filter(change -> change.getItemId().equals(processedId)))
+				.extracting(ItemChange::getType)
+				.containsExactly(ChangeType.CREATED, ChangeType.PROCESSED);
+	}
+
+	@Test
+	void itemChanges_longPollReturnsOnNextChange() throws Exception {
+		long since = lastPosition();
+		long start = System.nanoTime();
+		CompletableFuture<ResponseEntity<ItemChange[]>> poll = CompletableFuture.supplyAsync(() ->
+				restTemplate.getForEntity("/api/items/changes?since=" + since + "&wait=20", ItemChange[].class));
+
+		Item item = new Item(
+				null,
+				"Awaited Item",
+				"Desc",
+				"Status",
+				"test@test.com");
+		Long id = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+
+		ResponseEntity<ItemChange[]> response = poll.get(10, TimeUnit.SECONDS);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).extracting(ItemChange::getItemId, ItemChange::getType)
+				.containsExactly(tuple(id, ChangeType.CREATED));
+		assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(10);
+
+		ResponseEntity<ItemChange[]> empty = restTemplate.getForEntity(
+				"/api/items/changes?since=" + response.getBody()[0].getPosition(), ItemChange[].class);
+		assertThat(empty.getBody()).isEmpty();
+		assertThat(restTemplate.getForEntity("/api/items/changes?limit=0", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.BAD_REQUEST);
+	}
+
+	@Test
+	void itemChanges_lowerIdCommittedLaterNotSkipped() throws Exception {
+		long since = lastPosition();
+		CountDownLatch recorded = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		// takes its change id first and commits last
+		CompletableFuture<Void> late = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+			changeOutbox.record(-1L, ChangeType.UPDATED, "LATE");
+			recorded.countDown();
+			try {
+				commit.await();
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		}));
+		recorded.await();
+		transactionTemplate.executeWithoutResult(status -> changeOutbox.record(-2L, ChangeType.UPDATED, "EARLY"));
+
+		List<ItemChange> early = changesAfter(since);
+		assertThat(early).extracting(ItemChange::getItemId).containsExactly(-2L);
+
+		commit.countDown();
+		late.get(10, TimeUnit.SECONDS);
+		List<ItemChange> changes = changesAfter(early.get(0).getPosition());
+		assertThat(changes).extracting(ItemChange::getItemId).containsExactly(-1L);
+		assertThat(changes.get(0).getId()).isLessThan(early.get(0).getId());
+		assertThat(changes.get(0).getPosition()).isGreaterThan(early.get(0).getPosition());
+	}
+
+	// the position after the changes of the previous tests, once they are all numbered
+	private long lastPosition() {
+		Long maxPosition = changeRepository.findMaxPosition();
+		long position = maxPosition == null ? 0 : maxPosition;
+		for (List<ItemChange> page = changesAfter(position); !page.isEmpty(); page = changesAfter(position)) {
+			position = page.get(page.size() - 1).getPosition();
+		}
+		return position;
+	}
+
+	// waits a second for the changes which are committed but not numbered yet
+	private List<ItemChange> changesAfter(long since) {
+		return List.of(restTemplate.getForEntity(
+				"/api/items/changes?since=" + since + "&limit=1000&wait=1", ItemChange[].class).getBody());
+	}
 }
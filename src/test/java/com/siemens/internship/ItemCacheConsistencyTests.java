@@ -0,0 +1,120 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Lets a PUT commit between the commit of a processing chunk and the cache write after it,
+ * the window in which a late write would put the older processed item back into the cache.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:cacheconsistency"
+})
+class ItemCacheConsistencyTests {
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private ItemRepository itemRepository;
+	@SpyBean
+	private CacheManager cacheManager;
+
+	private Long updatedId;
+	private final AtomicBoolean interleaved = new AtomicBoolean(true);
+
+	@BeforeEach
+	void setUp() {
+		doAnswer(invocation -> new InterleavingCache((Cache) invocation.callRealMethod()))
+				.when(cacheManager).getCache(ItemService.ITEMS_CACHE);
+	}
+
+	@Test
+	void processingRun_concurrentPutNotOverwrittenInCache() {
+		Item item = new Item(null, "Item", "Desc", "NEW", "item@test.com");
+		updatedId = restTemplate.postForEntity("/api/items", item, Item.class).getBody().getId();
+		restTemplate.getForEntity("/api/items/" + updatedId, Item.class);
+
+		interleaved.set(false);
+		ResponseEntity<Item[]> processResponse = restTemplate.getForEntity("/api/items/process", Item[].class);
+
+		assertThat(processResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(interleaved).isTrue();
+		assertThat(itemRepository.findById(updatedId).orElseThrow().getStatus()).isEqualTo("UPDATED");
+		assertThat(restTemplate.getForEntity("/api/items/" + updatedId, Item.class).getBody().getStatus())
+				.isEqualTo("UPDATED");
+	}
+
+	// runs the PUT on the first cache write of the updated item, before the write itself
+	private void interleavePut(Object key) {
+		if (key.equals(updatedId) && interleaved.compareAndSet(false, true)) {
+			Item changes = new Item(null, "Item", "Desc", "UPDATED", "item@test.com");
+			restTemplate.put("/api/items/" + updatedId, changes);
+		}
+	}
+
+	private class InterleavingCache implements Cache {
+		private final Cache cache;
+
+		InterleavingCache(Cache cache) {
+			this.cache = cache;
+		}
+
+		@Override
+		public String getName() {
+			return cache.getName();
+		}
+
+		@Override
+		public Object getNativeCache() {
+			return cache.getNativeCache();
+		}
+
+		@Override
+		public ValueWrapper get(Object key) {
+			return cache.get(key);
+		}
+
+		@Override
+		public <T> T get(Object key, Class<T> type) {
+			return cache.get(key, type);
+		}
+
+		@Override
+		public <T> T get(Object key, Callable<T> valueLoader) {
+			return cache.get(key, valueLoader);
+		}
+
+		@Override
+		public void put(Object key, Object value) {
+			interleavePut(key);
+			cache.put(key, value);
+		}
+
+		@Override
+		public void evict(Object key) {
+			interleavePut(key);
+			cache.evict(key);
+		}
+
+		@Override
+		public void clear() {
+			cache.clear();
+		}
+	}
+}
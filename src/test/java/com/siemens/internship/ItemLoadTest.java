@@ -0,0 +1,173 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.service.ItemBulkService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load driver against a random port: concurrent clients read and patch items while processing runs
+ * keep the connection pool busy, then the API latencies and the throughput are printed.
+ * Skipped unless enabled, run it once per profile to compare them:
+ * <pre>
+ * ./mvnw test -Dtest=ItemLoadTest -Ditems.load-test=true
+ * ./mvnw test -Dtest=ItemLoadTest -Ditems.load-test=true -Dspring.profiles.active=perf
+ * </pre>
+ * items.load-test.items, items.load-test.clients and items.load-test.duration (seconds) change the load.
+ */
+@EnabledIfSystemProperty(named = "items.load-test", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ItemLoadTest {
+
+	@LocalServerPort
+	private int port;
+	@Autowired
+	private ItemBulkService itemBulkService;
+	@Autowired
+	private Environment environment;
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void apiLatencyDuringProcessing() throws Exception {
+		int itemCount = Integer.getInteger("items.load-test.items", 50_000);
+		int clients = Integer.getInteger("items.load-test.clients", 32);
+		long durationNanos = Duration.ofSeconds(Integer.getInteger("items.load-test.duration", 20)).toNanos();
+
+		itemBulkService.saveAll(IntStream.range(0, itemCount)
+				.mapToObj(i -> new Item(null, "Item " + i, "Description", "NEW", "item" + i + "@test.com"))
+				.iterator());
+		List<Long> ids = readIds();
+
+		// the client threads are not daemons, both pools are shut down even when the run fails
+		ExecutorService httpThreads = Executors.newFixedThreadPool(clients);
+		ExecutorService clientThreads = Executors.newFixedThreadPool(clients);
+		long[] latencies;
+		Map<Integer, Long> failures = new TreeMap<>();
+		long processingRuns;
+		try {
+			HttpClient client = HttpClient.newBuilder()
+					.executor(httpThreads)
+					.build();
+			String baseUrl = "http://localhost:" + port + "/api/items";
+			long deadline = System.nanoTime() + durationNanos;
+
+			// background load - back to back processing runs, as many as the run limit allows
+			CompletableFuture<Long> processing = CompletableFuture.supplyAsync(() -> {
+				long runs = 0;
+				while (System.nanoTime() < deadline) {
+					send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/process?mode=RANGE")).build());
+					runs++;
+				}
+				return runs;
+			});
+
+			List<CompletableFuture<ClientResult>> results = new ArrayList<>();
+			for (int c = 0; c < clients; c++) {
+				results.add(CompletableFuture.supplyAsync(() -> runClient(client, baseUrl, ids, deadline), clientThreads));
+			}
+
+			List<ClientResult> clientResults = results.stream()
+					.map(CompletableFuture::join)
+					.toList();
+			latencies = clientResults.stream()
+					.flatMapToLong(result -> result.latencies().stream().mapToLong(Long::longValue))
+					.sorted()
+					.toArray();
+			clientResults.forEach(result ->
+					result.failures().forEach((status, count) -> failures.merge(status, count, Long::sum)));
+			processingRuns = processing.join();
+		} finally {
+			clientThreads.shutdownNow();
+			httpThreads.shutdownNow();
+		}
+
+		double seconds = durationNanos / 1e9;
+		System.out.printf("%nLoad test - profiles %s, %d items, %d clients, %.0f s%n",
+				Arrays.toString(environment.getActiveProfiles()), itemCount, clients, seconds);
+		System.out.printf("  API requests  %d (%.0f/s) successful, failed by status %s%n",
+				latencies.length, latencies.length / seconds, failures);
+		System.out.printf("  latency ms    p50 %.2f  p95 %.2f  p99 %.2f  max %.2f%n",
+				percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+				latencies[latencies.length - 1] / 1e6);
+		System.out.printf("  processing    %d runs%n%n", processingRuns);
+
+		assertThat(latencies).isNotEmpty();
+	}
+
+	// the ids as the API returns them, page by page - they do not have to start at 1 or be contiguous
+	private List<Long> readIds() {
+		List<Long> ids = new ArrayList<>();
+		Item[] page = restTemplate.getForObject("/api/items?limit=1000", Item[].class);
+		while (page.length > 0) {
+			Arrays.stream(page).map(Item::getId).forEach(ids::add);
+			page = restTemplate.getForObject("/api/items?limit=1000&afterId=" + ids.get(ids.size() - 1), Item[].class);
+		}
+		return ids;
+	}
+
+	// half reads, half single-field updates of random items; only the 2xx responses count as latencies
+	private ClientResult runClient(HttpClient client, String baseUrl, List<Long> ids, long deadline) {
+		List<Long> latencies = new ArrayList<>();
+		Map<Integer, Long> failures = new HashMap<>();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < deadline) {
+			URI uri = URI.create(baseUrl + "/" + ids.get(random.nextInt(ids.size())));
+			HttpRequest request = random.nextBoolean()
+					? HttpRequest.newBuilder(uri).build()
+					: HttpRequest.newBuilder(uri)
+							.header("Content-Type", "application/json")
+							.method("PATCH", HttpRequest.BodyPublishers.ofString("{\"description\": \"Patched\"}"))
+							.build();
+			long start = System.nanoTime();
+			int status = send(client, request);
+			long latency = System.nanoTime() - start;
+			if (status / 100 == 2) {
+				latencies.add(latency);
+			} else {
+				failures.merge(status, 1L, Long::sum);
+			}
+		}
+		return new ClientResult(latencies, failures);
+	}
+
+	private static int send(HttpClient client, HttpRequest request) {
+		try {
+			return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+		} catch (Exception e) {
+			throw new IllegalStateException("Request to " + request.uri() + " failed", e);
+		}
+	}
+
+	private record ClientResult(List<Long> latencies, Map<Integer, Long> failures) {
+	}
+
+	private static double percentile(long[] sorted, int percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1e6;
+	}
+}
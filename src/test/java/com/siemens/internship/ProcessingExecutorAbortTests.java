@@ -0,0 +1,80 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ProcessingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Same executor as {@link ProcessingExecutorTests}, but a chunk which finds the queue full fails the run.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:processingexecutorabort",
+		"items.processing.chunk-size=10",
+		"items.processing.parallelism=2",
+		"items.processing.queue-capacity=2",
+		"items.processing.max-db-concurrency=1",
+		"items.processing.rejection-policy=abort"
+})
+class ProcessingExecutorAbortTests {
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private ProcessingExecutor processingExecutor;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void processItems_queueFullAnsweredWith503() throws Exception {
+		itemRepository.saveAll(IntStream.range(0, ProcessingExecutorTests.ITEM_COUNT)
+				.mapToObj(i -> new Item(null, "Item " + i, "Desc", "NEW", "item@test.com"))
+				.toList());
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> holder = ProcessingExecutorTests.holdDbPermit(processingExecutor, release);
+
+		ResponseEntity<String> response;
+		try {
+			response = restTemplate.getForEntity("/api/items/process", String.class);
+		} finally {
+			release.countDown();
+			holder.join();
+		}
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+		assertThat(meterRegistry.get("items.processing.executor.rejected").counter().count()).isEqualTo(1);
+
+		// the accepted chunks still commit - at most two running and two queued - the rejected one and
+		// the ones after it are not processed
+		for (int i = 0; i < 100 && gauge("executor.active") + gauge("executor.queued") > 0; i++) {
+			Thread.sleep(50);
+		}
+		assertThat(countByStatus("PROCESSED")).isLessThanOrEqualTo(40);
+		assertThat(countByStatus("NEW")).isGreaterThanOrEqualTo(5);
+	}
+
+	private double gauge(String name) {
+		return meterRegistry.get(name).tag("name", "items.processing").gauge().value();
+	}
+
+	private long countByStatus(String status) {
+		return itemRepository.findAll().stream()
+				.filter(item -> item.getStatus().equals(status))
+				.count();
+	}
+}
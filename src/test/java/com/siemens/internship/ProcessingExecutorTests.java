@@ -0,0 +1,142 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs processing in chunks of ten on two threads with a queue of two and a single database permit,
+ * so a test holding the permit sees the chunks run, wait in the queue or get rejected.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:processingexecutor",
+		"items.processing.chunk-size=10",
+		"items.processing.parallelism=2",
+		"items.processing.queue-capacity=2",
+		"items.processing.max-db-concurrency=1",
+		"items.processing.rejection-policy=caller-runs"
+})
+class ProcessingExecutorTests {
+	// five chunks - more than the two threads and the queue of two take
+	static final int ITEM_COUNT = 45;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private ProcessingExecutor processingExecutor;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		itemRepository.deleteAllInBatch();
+		itemRepository.saveAll(IntStream.range(0, ITEM_COUNT)
+				.mapToObj(i -> new Item(null, "Item " + i, "Desc", "NEW", "item@test.com"))
+				.toList());
+	}
+
+	@Test
+	void processItems_processesEveryChunk() {
+		ResponseEntity<Item[]> response = restTemplate.getForEntity("/api/items/process", Item[].class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).hasSize(ITEM_COUNT)
+				.allMatch(item -> item.getStatus().equals("PROCESSED"));
+		assertThat(itemRepository.findAll()).allMatch(item -> item.getStatus().equals("PROCESSED"));
+	}
+
+	@Test
+	void processItems_failingChunkFailsTheRun() {
+		// the statement bypasses the validation, the save of the processed item does not;
+		// the cached item still has the valid email, so it is evicted
+		List<Long> ids = itemRepository.findAllIds();
+		Long invalidId = ids.get(ids.size() / 2);
+		jdbcTemplate.update("UPDATE item SET email = 'bad-email' WHERE id = ?", invalidId);
+		entityManagerFactory.getCache().evict(Item.class, invalidId);
+
+		assertThatThrownBy(() -> itemService.processItemsAsync().join())
+				.isInstanceOf(CompletionException.class)
+				.hasMessageContaining("Failed to process items with IDs");
+		assertThat(restTemplate.getForEntity("/api/items/process", String.class).getStatusCode())
+				.isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+		// the other chunks are committed on their own
+		assertThat(itemRepository.findById(ids.get(0)).orElseThrow().getStatus()).isEqualTo("PROCESSED");
+		assertThat(itemRepository.findById(invalidId).orElseThrow().getStatus()).isEqualTo("NEW");
+	}
+
+	@Test
+	void processItems_callerRunsWhenQueueIsFull() throws Exception {
+		double rejectedBefore = rejectedChunks();
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> holder = holdDbPermit(processingExecutor, release);
+
+		CompletableFuture<List<Item>> run = itemService.processItemsAsync();
+		// the first chunk finding the queue full runs on the submitting thread, which then waits for the permit
+		// as well, so no further chunk is submitted
+		for (int i = 0; i < 100 && (rejectedChunks() == rejectedBefore || gauge("executor.active") < 2); i++) {
+			Thread.sleep(50);
+		}
+
+		assertThat(rejectedChunks() - rejectedBefore).isEqualTo(1);
+		assertThat(gauge("executor.active")).isEqualTo(2);
+		assertThat(gauge("executor.queued")).isLessThanOrEqualTo(2);
+		assertThat(run).isNotDone();
+
+		release.countDown();
+		holder.join();
+		assertThat(run.join()).hasSize(ITEM_COUNT);
+	}
+
+	private double rejectedChunks() {
+		return meterRegistry.get("items.processing.executor.rejected").counter().count();
+	}
+
+	private double gauge(String name) {
+		return meterRegistry.get(name).tag("name", "items.processing").gauge().value();
+	}
+
+	// takes the only database permit until released, so every chunk stops before its transaction
+	static CompletableFuture<Void> holdDbPermit(ProcessingExecutor processingExecutor, CountDownLatch release)
+			throws InterruptedException {
+		CountDownLatch held = new CountDownLatch(1);
+		CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> processingExecutor.withDbPermit(() -> {
+			held.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		}));
+		held.await();
+		return holder;
+	}
+}
@@ -0,0 +1,206 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.JobState;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingJobRepository;
+import com.siemens.internship.service.ProcessingExecutor;
+import com.siemens.internship.service.ProcessingJobService;
+import com.siemens.internship.service.ProcessingRunLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs processing jobs in one-item chunks on a single database permit, so a test can hold
+ * a job inside a step or before its run. Expired leases are looked for every 200ms.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:processingjobs",
+		"items.processing.chunk-size=1",
+		"items.processing.parallelism=2",
+		"items.processing.max-db-concurrency=1",
+		"items.cluster.poll-interval=200ms"
+})
+class ProcessingJobTests {
+	private static final int ITEM_COUNT = 20;
+
+	@Autowired
+	private ProcessingJobService jobService;
+	@Autowired
+	private ProcessingJobRepository jobRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private ProcessingExecutor processingExecutor;
+	@Autowired
+	private ProcessingRunLimiter runLimiter;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private List<Long> itemIds;
+
+	@BeforeEach
+	void setUp() {
+		jobRepository.deleteAllInBatch();
+		itemRepository.deleteAllInBatch();
+		itemIds = itemRepository.saveAll(IntStream.range(0, ITEM_COUNT)
+						.mapToObj(i -> new Item(null, "Item " + i, "Desc", "NEW", "item@test.com"))
+						.toList())
+				.stream()
+				.map(Item::getId)
+				.sorted()
+				.toList();
+	}
+
+	@Test
+	void resume_continuesFromCheckpointOfExpiredLease() throws Exception {
+		Long checkpoint = itemIds.get(9);
+		ProcessingJob stopped = jobRepository.save(job("stopped-node", Instant.now().minus(1, ChronoUnit.MINUTES), checkpoint));
+		ProcessingJob leased = jobRepository.save(job("other-node", Instant.now().plus(1, ChronoUnit.HOURS), null));
+
+		jobService.resumeUnfinishedJobs();
+		ProcessingJob resumed = awaitFinished(stopped.getId());
+
+		assertThat(resumed.getState()).isEqualTo(JobState.COMPLETED);
+		assertThat(resumed.getOwner()).isNotEqualTo("stopped-node");
+		assertThat(resumed.getProcessedCount()).isEqualTo(ITEM_COUNT);
+		itemIds.forEach(id -> assertThat(itemRepository.findById(id).orElseThrow().getStatus())
+				.isEqualTo(id <= checkpoint ? "NEW" : "PROCESSED"));
+
+		ProcessingJob untouched = jobRepository.findById(leased.getId()).orElseThrow();
+		assertThat(untouched.getState()).isEqualTo(JobState.RUNNING);
+		assertThat(untouched.getOwner()).isEqualTo("other-node");
+		assertThat(untouched.getProcessedCount()).isZero();
+	}
+
+	@Test
+	void resume_takesOverLeaseOfRestartedNodeOnceExpired() throws Exception {
+		// the node restarted under a new id before the lease of the one it replaces ran out
+		ProcessingJob crashed = jobRepository.save(job("crashed-node", Instant.now().plus(2, ChronoUnit.SECONDS), null));
+
+		jobService.resumeUnfinishedJobs();
+		ProcessingJob stillLeased = jobRepository.findById(crashed.getId()).orElseThrow();
+		assertThat(stillLeased.getOwner()).isEqualTo("crashed-node");
+		assertThat(stillLeased.getProcessedCount()).isZero();
+
+		ProcessingJob resumed = awaitFinished(crashed.getId());
+		assertThat(resumed.getState()).isEqualTo(JobState.COMPLETED);
+		assertThat(resumed.getOwner()).isNotEqualTo("crashed-node");
+		assertThat(resumed.getProcessedCount()).isEqualTo(ITEM_COUNT);
+	}
+
+	@Test
+	void resume_continuesJobReleasedOnShutdown() throws Exception {
+		ProcessingJob stopped = jobRepository.save(job("stopped-node", Instant.now().plus(1, ChronoUnit.HOURS), null));
+		transactionTemplate.executeWithoutResult(status ->
+				jobRepository.release("stopped-node", List.of(JobState.QUEUED, JobState.RUNNING), Instant.now()));
+
+		jobService.resumeUnfinishedJobs();
+		ProcessingJob resumed = awaitFinished(stopped.getId());
+
+		assertThat(resumed.getState()).isEqualTo(JobState.COMPLETED);
+		assertThat(resumed.getProcessedCount()).isEqualTo(ITEM_COUNT);
+	}
+
+	@Test
+	void cancel_stopsRunningJobWithinStep() throws Exception {
+		CountDownLatch permitHeld = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> processingExecutor.withDbPermit(() -> {
+			permitHeld.countDown();
+			awaitQuietly(release);
+			return null;
+		}));
+		permitHeld.await();
+
+		Long jobId = jobService.start().getId();
+		// both chunks of the first step have started and wait for the database permit
+		for (int i = 0; i < 100 && activeChunks() < 2; i++) {
+			Thread.sleep(50);
+		}
+		assertThat(activeChunks()).isEqualTo(2);
+
+		jobService.cancel(jobId);
+		release.countDown();
+		holder.join();
+		// the state is CANCELLED right away, the chunks which were waiting are done once the pool is idle
+		for (int i = 0; i < 100 && activeChunks() > 0; i++) {
+			Thread.sleep(50);
+		}
+		ProcessingJob cancelled = jobRepository.findById(jobId).orElseThrow();
+
+		assertThat(cancelled.getState()).isEqualTo(JobState.CANCELLED);
+		assertThat(cancelled.getProcessedCount()).isZero();
+		assertThat(itemRepository.findAll()).allMatch(item -> item.getStatus().equals("NEW"));
+	}
+
+	@Test
+	void start_jobWaitsForFreeRun() throws Exception {
+		ProcessingRunLimiter.Run first = runLimiter.start();
+		ProcessingRunLimiter.Run second = runLimiter.start();
+		Long jobId;
+		try {
+			jobId = jobService.start().getId();
+			Thread.sleep(500);
+
+			assertThat(jobRepository.findById(jobId).orElseThrow().getState()).isEqualTo(JobState.QUEUED);
+			assertThat(itemRepository.findAll()).allMatch(item -> item.getStatus().equals("NEW"));
+		} finally {
+			first.close();
+			second.close();
+		}
+
+		ProcessingJob completed = awaitFinished(jobId);
+		assertThat(completed.getState()).isEqualTo(JobState.COMPLETED);
+		assertThat(completed.getProcessedCount()).isEqualTo(ITEM_COUNT);
+	}
+
+	private ProcessingJob job(String owner, Instant leaseUntil, Long lastProcessedId) {
+		ProcessingJob job = new ProcessingJob();
+		job.setState(JobState.RUNNING);
+		job.setOwner(owner);
+		job.setLeaseUntil(leaseUntil);
+		job.setLastProcessedId(lastProcessedId);
+		job.setProcessedCount(lastProcessedId == null ? 0 : itemIds.indexOf(lastProcessedId) + 1);
+		job.setCreatedAt(Instant.now());
+		job.setUpdatedAt(job.getCreatedAt());
+		return job;
+	}
+
+	private ProcessingJob awaitFinished(Long jobId) throws InterruptedException {
+		ProcessingJob job = jobRepository.findById(jobId).orElseThrow();
+		for (int i = 0; i < 200 && !job.getState().isFinished(); i++) {
+			Thread.sleep(50);
+			job = jobRepository.findById(jobId).orElseThrow();
+		}
+		return job;
+	}
+
+	private double activeChunks() {
+		return meterRegistry.get("executor.active").tag("name", "items.processing").gauge().value();
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
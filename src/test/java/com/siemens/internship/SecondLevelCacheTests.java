@@ -0,0 +1,124 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the reads of the item table by a processing run with a cold and with a warm second-level cache.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:l2cache",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+				+ "com.siemens.internship.SecondLevelCacheTests$ItemSelectCounter",
+		"items.processing.chunk-size=50"
+})
+class SecondLevelCacheTests {
+	private static final int ITEM_COUNT = 500;
+	private static final int CHUNK_SIZE = 50;
+
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		itemRepository.deleteAllInBatch();
+		itemRepository.saveAll(IntStream.range(0, ITEM_COUNT)
+				.mapToObj(i -> new Item(null, "Item " + i, "Desc", "NEW", "item@test.com"))
+				.toList());
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void processingRun_warmCacheSavesRoundTrips() {
+		entityManagerFactory.getCache().evictAll();
+		long coldSelects = itemSelectsOfProcessingRun();
+
+		long warmSelects = itemSelectsOfProcessingRun();
+
+		// with a warm cache no chunk has to load its items, only the id pages are still read
+		assertThat(coldSelects - warmSelects)
+				.as("item selects with a cold cache (%d) minus with a warm cache (%d)", coldSelects, warmSelects)
+				.isEqualTo(ITEM_COUNT / CHUNK_SIZE);
+	}
+
+	@Test
+	void findAllIds_servedFromQueryCacheUntilItemsChange() {
+		itemRepository.findAllIds();
+		statistics.clear();
+
+		List<Long> cachedIds = itemRepository.findAllIds();
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+		assertThat(cachedIds).hasSize(ITEM_COUNT);
+
+		itemService.deleteById(cachedIds.get(0));
+		assertThat(itemRepository.findAllIds()).hasSize(ITEM_COUNT - 1);
+	}
+
+	@Test
+	void bulkUpdate_invalidatesCachedItems() throws Exception {
+		Long id = itemRepository.findAllIds().get(0);
+		itemRepository.findById(id);
+
+		itemService.processItemsInBulkAsync().get();
+
+		assertThat(itemRepository.findById(id).orElseThrow().getStatus()).isEqualTo("PROCESSED");
+	}
+
+	@Test
+	void updateAndDelete_keepOtherItemsCached() {
+		List<Long> ids = itemRepository.findAllIds();
+		itemRepository.findById(ids.get(1));
+
+		itemService.update(ids.get(0), new Item(null, "Renamed", null, null, null), null);
+		itemService.deleteById(ids.get(2));
+		ItemSelectCounter.SELECTS.set(0);
+
+		// entity writes only replace the entries of their own items, a bulk statement would drop the whole region
+		assertThat(itemRepository.findById(ids.get(1))).isPresent();
+		assertThat(itemRepository.findById(ids.get(0)).orElseThrow().getName()).isEqualTo("Renamed");
+		assertThat(ItemSelectCounter.SELECTS.get()).isZero();
+		assertThat(itemRepository.findById(ids.get(2))).isEmpty();
+	}
+
+	// only the reads of the item table - the change feed numbers the outbox rows of a run in the background,
+	// and its statements may fall into the next measurement
+	private long itemSelectsOfProcessingRun() {
+		ItemSelectCounter.SELECTS.set(0);
+		itemService.processItemsAsync().join();
+		return ItemSelectCounter.SELECTS.get();
+	}
+
+	public static class ItemSelectCounter implements StatementInspector {
+		static final AtomicLong SELECTS = new AtomicLong();
+
+		@Override
+		public String inspect(String sql) {
+			if (sql.startsWith("select") && sql.contains(" from item ")) {
+				SELECTS.incrementAndGet();
+			}
+			return sql;
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.siemens.internship.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.model.Item;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemFileReaderTests {
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void readsCsvWithQuotesAndLineBreaks() {
+		String csv = "email,name,description,status\r\n"
+				+ "a@test.com,Item 1,\"Desc, with comma\",NEW\r\n"
+				+ "\r\n"
+				+ "b@test.com,\"Item \"\"2\"\"\",\"two\nlines\",NEW\n";
+
+		List<Item> items = read(csv, ItemFileFormat.CSV);
+
+		assertThat(items).hasSize(2);
+		assertThat(items.get(0).getId()).isNull();
+		assertThat(items.get(0).getName()).isEqualTo("Item 1");
+		assertThat(items.get(0).getDescription()).isEqualTo("Desc, with comma");
+		assertThat(items.get(0).getEmail()).isEqualTo("a@test.com");
+		assertThat(items.get(1).getName()).isEqualTo("Item \"2\"");
+		assertThat(items.get(1).getDescription()).isEqualTo("two\nlines");
+	}
+
+	@Test
+	void readsNdjsonAcrossBufferBoundaries() {
+		StringBuilder ndjson = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			// multi-byte characters end up split between two buffer fills
+			ndjson.append("{\"name\":\"Ítem ").append(i).append("\",\"description\":\"Désc\",")
+					.append("\"status\":\"NEW\",\"email\":\"item@test.com\"}\n");
+		}
+
+		List<Item> items = read(ndjson.toString(), ItemFileFormat.NDJSON);
+
+		assertThat(items).hasSize(5000);
+		assertThat(items.get(4999).getName()).isEqualTo("Ítem 4999");
+		assertThat(items).allSatisfy(item -> assertThat(item.getDescription()).isEqualTo("Désc"));
+	}
+
+	@Test
+	void reportsTheLineOfMalformedRecords() {
+		String csv = "id,name\n1,Item\nx,Item\n";
+
+		assertThatThrownBy(() -> read(csv, ItemFileFormat.CSV))
+				.isInstanceOf(UncheckedIOException.class)
+				.hasMessageContaining("line 3");
+	}
+
+	@Test
+	void rejectsUnclosedQuoteBeforeTheEndOfTheInput() {
+		StringBuilder csv = new StringBuilder("email,name,description,status\n")
+				.append("a@test.com,Item 1,\"unclosed,NEW\n");
+		String line = "b@test.com,Item 2,Desc,NEW".repeat(40) + "\n";
+		while (csv.length() < 2 * 1024 * 1024) {
+			csv.append(line);
+		}
+
+		assertThatThrownBy(() -> read(csv.toString(), ItemFileFormat.CSV))
+				.isInstanceOf(UncheckedIOException.class)
+				.hasMessageContaining("Record starting at line 2 is longer than 1048576 characters");
+	}
+
+	private List<Item> read(String content, ItemFileFormat format) {
+		ItemFileReader reader = new ItemFileReader(
+				Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))),
+				format, objectMapper);
+		List<Item> items = new ArrayList<>();
+		reader.forEachRemaining(items::add);
+		return items;
+	}
+}
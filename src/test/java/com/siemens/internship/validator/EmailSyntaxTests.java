@@ -0,0 +1,76 @@
+package com.siemens.internship.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class EmailSyntaxTests {
+	private static final Pattern EMAIL_PATTERN = Pattern.compile(EmailValidator.EMAIL_REGEX);
+
+	// the characters which matter for the grammar, plus a few which never match
+	private static final String ALPHABET = "abZ09._%+-@ !";
+
+	@Test
+	void matchesRegexOnRandomInputs() {
+		Random random = new Random(42);
+		for (int i = 0; i < 200_000; i++) {
+			String email = randomEmail(random);
+			assertThat(EmailSyntax.isValid(email))
+					.as("\"%s\"", email)
+					.isEqualTo(EMAIL_PATTERN.matcher(email).matches());
+		}
+	}
+
+	@Test
+	void matchesRegexOnKnownInputs() {
+		String[] emails = {
+				"test@test.com", "test.test@test.com", "test@test.test.com", "test@test-test.te",
+				"test+test@test.com", "a@b.cd", "bad-email", "test..test@test.com", "test.com", "test@",
+				"test@.com", "test.@test.com", "test@test", "test@@test.com", "test @test.com", "!@#@test.com",
+				"test@test.t_", "test@_test.com", "test@test-.com", "test@test_+.com", ".test@test.com",
+				"test@test..com", "test@exam_ple.com", "", "a@b1.c2.com", "a@b.c", "a%b@c-d-e.fg.hi"
+		};
+		for (String email : emails) {
+			assertThat(EmailSyntax.isValid(email))
+					.as("\"%s\"", email)
+					.isEqualTo(EMAIL_PATTERN.matcher(email).matches());
+		}
+	}
+
+	@Test
+	void rejectsNullAndOversizedInputs() {
+		assertThat(EmailSyntax.isValid(null)).isFalse();
+
+		String local = "a".repeat(EmailSyntax.MAX_LENGTH - "@test.com".length());
+		assertThat(EmailSyntax.isValid(local + "@test.com")).isTrue();
+		assertThat(EmailSyntax.isValid("a" + local + "@test.com")).isFalse();
+	}
+
+	@Test
+	void pathologicalInputsAreRejectedInLinearTime() {
+		assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+			for (int i = 0; i < 10_000; i++) {
+				assertThat(EmailSyntax.isValid("a-".repeat(120) + "!")).isFalse();
+				assertThat(EmailSyntax.isValid("a@" + "a-".repeat(120) + "a")).isFalse();
+			}
+		});
+	}
+
+	private static String randomEmail(Random random) {
+		char[] chars = new char[random.nextInt(16)];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+		}
+		// most random strings miss the structure, so half of them get an '@' and an extension
+		if (chars.length > 2 && random.nextBoolean()) {
+			chars[random.nextInt(chars.length / 2 + 1)] = '@';
+			return new String(chars) + (random.nextBoolean() ? ".com" : ".c");
+		}
+		return new String(chars);
+	}
+}